@@ -32,9 +32,14 @@ android {
     buildFeatures {
         viewBinding = true
     }
+    androidResources {
+        // the opening book is memory-mapped straight out of the APK
+        noCompress += "bin"
+    }
 }
 
 dependencies {
+    implementation(project(":core"))
     implementation ("org.jetbrains.kotlin:kotlin-stdlib:1.8.22")
     implementation ("org.jetbrains.kotlin:kotlin-stdlib-jdk8:1.8.22")
     implementation("androidx.appcompat:appcompat:1.6.1")
@@ -0,0 +1,98 @@
+package edu.byuh.cis.cs203.outwit.views;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.Debug;
+
+import androidx.preference.PreferenceManager;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Counts the objects the game screen allocates per frame once it is running, and fails
+ * if there are any: garbage made while drawing means GC pauses in the middle of an
+ * animation. Runs on a device, since only ART can count allocations.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DrawAllocationTest {
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+    private static final int WARMUP_FRAMES = 10;
+    private static final int FRAMES = 100;
+    private static final String TIMER_KEY = "timer";
+
+    private Context context;
+    private SharedPreferences preferences;
+    private boolean hadTimer;
+    private boolean timer;
+
+    @Before
+    public void rememberTimerPreference() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        preferences = PreferenceManager.getDefaultSharedPreferences(context);
+        hadTimer = preferences.contains(TIMER_KEY);
+        timer = preferences.getBoolean(TIMER_KEY, false);
+    }
+
+    @After
+    public void restoreTimerPreference() {
+        if (hadTimer) {
+            preferences.edit().putBoolean(TIMER_KEY, timer).commit();
+        } else {
+            preferences.edit().remove(TIMER_KEY).commit();
+        }
+    }
+
+    @Test
+    public void drawingAFrameAllocatesNothing() {
+        assertEquals(0, allocationsPerFrame(false), 0);
+    }
+
+    @Test
+    public void drawingAFrameWithTheTimerAllocatesNothing() {
+        assertEquals(0, allocationsPerFrame(true), 0);
+    }
+
+    /**
+     * Draws frames of a new game into an offscreen canvas and counts what they allocate.
+     * The first frames set the game up and are not counted.
+     *
+     * @param showTimer whether the timer preference is on
+     * @return the average number of objects allocated per frame
+     */
+    @SuppressWarnings("deprecation") // the thread allocation counters still work on ART
+    private double allocationsPerFrame(final boolean showTimer) {
+        preferences.edit().putBoolean(TIMER_KEY, showTimer).commit();
+        final int[] allocations = new int[1];
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            Gameview view = new Gameview(context);
+            view.layout(0, 0, WIDTH, HEIGHT);
+            Canvas canvas = new Canvas(Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888));
+            try {
+                for (int i = 0; i < WARMUP_FRAMES; i++) {
+                    view.onDraw(canvas);
+                }
+                Debug.resetThreadAllocCount();
+                Debug.startAllocCounting();
+                for (int i = 0; i < FRAMES; i++) {
+                    view.onDraw(canvas);
+                }
+                Debug.stopAllocCounting();
+                allocations[0] = Debug.getThreadAllocCount();
+            } finally {
+                view.pauseGame();
+                view.shutdown();
+            }
+        });
+        return allocations[0] / (double) FRAMES;
+    }
+}
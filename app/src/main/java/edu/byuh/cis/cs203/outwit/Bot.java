@@ -1,246 +1,302 @@
 package edu.byuh.cis.cs203.outwit;
 
-import android.util.Log;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.stream.Collectors;
+import edu.byuh.cis.cs203.outwit.engine.Board;
+import edu.byuh.cis.cs203.outwit.engine.EndgameTablebase;
+import edu.byuh.cis.cs203.outwit.engine.MctsSearch;
+import edu.byuh.cis.cs203.outwit.engine.Moves;
+import edu.byuh.cis.cs203.outwit.engine.OpeningBook;
+import edu.byuh.cis.cs203.outwit.engine.ParallelSearch;
+import edu.byuh.cis.cs203.outwit.engine.Position;
+import edu.byuh.cis.cs203.outwit.engine.SearchEngine;
+import edu.byuh.cis.cs203.outwit.engine.TranspositionTable;
 
 public class Bot {
+    /**
+     * Thinking time used when the caller does not supply a budget.
+     */
+    public static final long DEFAULT_TIME_BUDGET_MS = 300;
+
+    /**
+     * Longest time the bot ponders on the opponent's turn before giving the battery a rest.
+     */
+    public static final long PONDER_TIME_BUDGET_MS = 30000;
+
+    /**
+     * Engine name for the alpha-beta search.
+     */
+    public static final String ENGINE_ALPHA_BETA = "alphabeta";
+
+    /**
+     * Engine name for Monte Carlo tree search.
+     */
+    public static final String ENGINE_MCTS = "mcts";
+
+    /**
+     * Receives the move chosen by a background search.
+     */
+    public interface MoveListener {
+        /**
+         * Called with the AI's move.
+         *
+         * @param move the chosen move, or null if the AI has no legal move and must pass
+         */
+        void onMoveChosen(Move move);
+    }
+
     private Team color;
-    private ArrayList<Chip> chipArrayList;
-    private int numTurns;
+    private SearchEngine search;
+    private ExecutorService executor;
+    private Future<?> pending;
+    private AtomicBoolean cancelCurrent;
+    private OpeningBook openingBook;
+    private EndgameTablebase tablebase;
+    private final Random random = new Random();
 
     /**
      * Initialize the AI
      *
-     * @param team  which team the AI plays for
-     * @param chips all the chips on the game board (the AI will only consider its
-     *              own chips)
+     * @param team which team the AI plays for
+     */
+    public Bot(Team team) {
+        this(team, 1);
+    }
+
+    /**
+     * Initialize the AI with a multi-threaded search
+     *
+     * @param team    which team the AI plays for
+     * @param threads how many threads search in parallel
      */
-    public Bot(Team team, ArrayList<Chip> chips) {
-        numTurns = 0;
+    public Bot(Team team, int threads) {
+        this(team, createEngine(ENGINE_ALPHA_BETA, threads));
+    }
+
+    /**
+     * Initialize the AI with a given search engine
+     *
+     * @param team   which team the AI plays for
+     * @param engine the search that chooses the AI's moves; the bot shuts it down with itself
+     */
+    public Bot(Team team, SearchEngine engine) {
         color = team;
-        chipArrayList = chips.stream().filter(c -> c.getColor() == color).collect(Collectors.toCollection(ArrayList::new));
+        search = engine;
+        executor = Executors.newSingleThreadExecutor(backgroundThreads("outwit-ai"));
     }
 
-    private boolean areAllChipsInHomeCornerExceptPowerChip(ArrayList<Chip> chips, Cell homeCorner, Chip powerChip) {
-        for (Chip chip : chips) {
-            if (chip != powerChip && !chip.getCurrentCell().equals(homeCorner)) {
-                return false;
-            }
+    /**
+     * Creates one of the search engines the bot can play with.
+     *
+     * @param name    {@link #ENGINE_ALPHA_BETA} or {@link #ENGINE_MCTS}
+     * @param threads how many threads search in parallel
+     * @return the engine; alpha-beta if the name is not recognized
+     */
+    public static SearchEngine createEngine(String name, int threads) {
+        if (ENGINE_MCTS.equals(name)) {
+            return new MctsSearch(threads, MctsSearch.DEFAULT_CAPACITY, backgroundThreads("outwit-ai-helper"));
         }
-        return true;
+        return new ParallelSearch(threads,
+                new TranspositionTable(TranspositionTable.DEFAULT_SIZE_MB),
+                backgroundThreads("outwit-ai-helper"));
     }
 
     /**
-     * Collect all possible moves that any chip in my team can make.
-     * For each move, measure the manhattan distance from the move
-     * to the corner. choose the move with the smallest positive distance.
-     * But for the first 3 moves, just move randomly.
+     * Creates low-priority daemon threads, so the search never competes with drawing.
      *
-     * @param cellz a 2D array of all the cells on the gameboard
-     * @return a Move object that encapsulates the move chosen by the AI
-     */
-    public Move getMove(Cell[][] cellz) {
-        final Cell lightCorner = cellz[8][0];
-        final Cell darkCorner = cellz[0][9];
-        numTurns++;
-        List<Move> allMoves = new ArrayList<>();
-        List<Move> candidateMoves = new ArrayList<>();
-
-        for (Chip eachChip : chipArrayList) {
-            List<Cell> possibleMoves = eachChip.findPossibleMoves(cellz);
-            possibleMoves.forEach(dest -> {
-                Move mv = new Move(eachChip.getCurrentCell(), dest);
-
-                // Check if the current chip is a PowerChip
-                int cellWeight;
-                if (eachChip.getCurrentCell().getColor() == Team.NEUTRAL) {
-                    cellWeight = 2;
-                } else {
-                    cellWeight = 0;
-                }
-                if (eachChip.isPowerChip()) {
-                    // Assuming PowerChip has a getWeight() method
-                    int powerChipWeight = 0;
-                    mv.setWeight(powerChipWeight + cellWeight);
-                } else {
-                    int powerChipWeight = 1;
-                    mv.setWeight(powerChipWeight + cellWeight);
-                }
+     * @param name the name given to every thread
+     * @return the thread factory
+     */
+    private static ThreadFactory backgroundThreads(final String name) {
+        return runnable -> {
+            Thread thread = new Thread(() -> {
+                android.os.Process.setThreadPriority(android.os.Process.THREAD_PRIORITY_BACKGROUND);
+                runnable.run();
+            }, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
 
-                allMoves.add(mv);
-            });
-        }
+    /**
+     * Give the AI an opening book. Positions found in the book are answered at once
+     * with one of its moves instead of a search.
+     *
+     * @param book the book, or null to always search
+     */
+    public void setOpeningBook(OpeningBook book) {
+        openingBook = book;
+    }
 
-        Move mustDoMove = null;
-        for (Move mv : allMoves) {
-            int distanceFromOriginToCorner;
-            int distanceFromDestinationToCorner;
-            if (color == Team.DARK) {
-                distanceFromDestinationToCorner = mv.getDestination().manhattanDistance(darkCorner);
-                distanceFromOriginToCorner = mv.getSource().manhattanDistance(darkCorner);
-            } else {
-                distanceFromDestinationToCorner = mv.getDestination().manhattanDistance(lightCorner);
-                distanceFromOriginToCorner = mv.getSource().manhattanDistance(lightCorner);
-            }
-            // for now, only consider moves that get us closer to home
-            if (distanceFromDestinationToCorner < distanceFromOriginToCorner) {
-                mv.setDistance(distanceFromDestinationToCorner);
-                candidateMoves.add(mv);
-            }
-            if (mv.getSource().getLogicalX() == 6 && mv.getSource().getLogicalY() == 0 || mv.getSource().getLogicalX() == 8 && mv.getSource().getLogicalY() == 2) {
-                mustDoMove = mv;
-                Log.d("","Must do move!");
+    /**
+     * Give the AI an endgame tablebase. Positions it covers are played perfectly
+     * without a search.
+     *
+     * @param table the tablebase for the chipset in play, or null to always search
+     */
+    public void setTablebase(EndgameTablebase table) {
+        tablebase = table;
+    }
+
+    /**
+     * Start searching for a move on the AI's background thread. The board is copied
+     * before this method returns, so the game may go on changing its own position (and
+     * the chips may keep animating) meanwhile. Any search that is still running is
+     * cancelled first.
+     *
+     * @param board     the game's position; it is not modified
+     * @param cellz     a 2D array of all the cells on the gameboard
+     * @param delivery  where the listener is run (e.g. the UI thread's handler)
+     * @param listener  receives the chosen move, unless the request is cancelled first
+     */
+    public void requestMove(Position board, final Cell[][] cellz, final Executor delivery,
+                            final MoveListener listener) {
+        cancel();
+        final Position snapshot = snapshot(board, color);
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        cancelCurrent = cancelled;
+        pending = executor.submit(() -> {
+            int move = knownMove(snapshot);
+            if (move == Moves.NONE) {
+                move = search.findBestMove(snapshot, DEFAULT_TIME_BUDGET_MS, Long.MAX_VALUE, cancelled);
             }
+            final int best = move;
+            delivery.execute(() -> {
+                // a cancel() that raced with the search invalidates its result
+                if (!cancelled.get()) {
+                    pending = null;
+                    listener.onMoveChosen(toMove(best, cellz));
+                }
+            });
+        });
+    }
+
+    /**
+     * Start thinking about the opponent's position while the opponent decides on a move.
+     * Nothing is delivered: the point is to fill the transposition table, so that the
+     * search that follows the opponent's move starts from results that are already
+     * several plies deep. Pondering stops on the next call to {@link #cancel()} or
+     * {@link #requestMove}, or after {@link #PONDER_TIME_BUDGET_MS}.
+     *
+     * @param board the game's position, with the opponent to move; it is not modified
+     */
+    public void startPondering(Position board) {
+        cancel();
+        final Position snapshot = snapshot(board, color.opponent());
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        cancelCurrent = cancelled;
+        executor.submit(() -> {
+            search.findBestMove(snapshot, PONDER_TIME_BUDGET_MS, Long.MAX_VALUE, cancelled);
+        });
+    }
+
+    /**
+     * Check whether a background search is in progress.
+     *
+     * @return true if a move has been requested but not delivered yet
+     */
+    public boolean isThinking() {
+        return pending != null;
+    }
+
+    /**
+     * Abandon the current background search or ponder, if any. Its result will never
+     * be delivered.
+     */
+    public void cancel() {
+        if (cancelCurrent != null) {
+            cancelCurrent.set(true);
+            cancelCurrent = null;
+        }
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
         }
+    }
 
+    /**
+     * Cancel any search and stop the background thread for good.
+     */
+    public void shutdown() {
+        cancel();
+        executor.shutdownNow();
+        search.shutdown();
+    }
 
-        int count = 0;
-        for (int i=6; i < 9; i++) {
-            for (int j=0; j < 3; j++) {
-                if (cellz[i][j].isOccupied()) {
-                    count++;
-                }
+    /**
+     * Look a position up in the endgame tablebase, then in the opening book.
+     *
+     * @param position the position to play from
+     * @return a move from the tablebase or book, or Moves.NONE if the position must be searched
+     */
+    private int knownMove(Position position) {
+        if (tablebase != null) {
+            int move = tablebase.bestMove(position);
+            if (move != Moves.NONE) {
+                return move;
             }
         }
+        return bookMove(position);
+    }
 
-        Move mustDoMove2 = null;
-        List<Move> allnMoves = new ArrayList<>();
-        Chip lastChip = null;
-        for (Chip c: chipArrayList) {
-            if (c.getCurrentCell().getColor() != color) {
-                List<Cell> possibleMoves = c.findPossibleMoves(cellz);
-                possibleMoves.forEach(dest -> {
-                    Move mov = new Move(c.getCurrentCell(), dest);
-                    allnMoves.add(mov);
-                });
-                lastChip = c;
-            }
+    /**
+     * Look a position up in the opening book.
+     *
+     * @param position the position to play from
+     * @return one of the book's moves, or Moves.NONE if there is no book, the position
+     * is not in it, or the book move is not legal here
+     */
+    private int bookMove(Position position) {
+        if (openingBook == null) {
+            return Moves.NONE;
         }
-        // Endgame
-        Log.d("","Count: " + count);
-
-        if (count > 7) {
-            for (int i=6; i < 9; i++) {
-                for (int j=0; j < 3; j++) {
-                    Cell emptyCell = cellz[i][j];
-                    if (!emptyCell.isOccupied()) {
-                        if (emptyCell.getLogicalY() == 2) {
-
-                            if (lastChip != null) {
-                                // Prioritize going down
-                                if (lastChip.getCurrentCell().getLogicalY() < emptyCell.getLogicalY()) {
-                                    for (Move m: allnMoves) {
-                                        if (m.getDestination().getLogicalY() > emptyCell.getLogicalY()) {
-                                            mustDoMove2 = m;
-                                        }
-                                    }
-                                } else { // Prioritize going right
-                                    for (Move m: allnMoves) {
-                                        if (m.getDestination().getLogicalX() >= emptyCell.getLogicalX()) {
-                                            mustDoMove2 = m;
-                                        }
-                                    }
-                                }
-                                if (lastChip.getCurrentCell().getLogicalX() == emptyCell.getLogicalX()) {
-                                    for (Move m: allnMoves) {
-                                        if (m.getDestination().getLogicalY() > lastChip.getCurrentCell().getLogicalY() && m.getDestination().getLogicalX() == lastChip.getCurrentCell().getLogicalX()) {
-                                            mustDoMove2 = m;
-                                        }
-                                    }
-                                }
-                            }
-
-                        } else{
-
-                            if (lastChip != null) {
-                                // Prioritize going left
-                                if (lastChip.getCurrentCell().getLogicalX() > emptyCell.getLogicalX()) {
-                                    for (Move m: allnMoves) {
-                                        if (m.getDestination().getLogicalX() < emptyCell.getLogicalX()) {
-                                            mustDoMove2 = m;
-                                        }
-                                    }
-                                } else { // Prioritize going up
-                                    for (Move m: allnMoves) {
-                                        if (m.getDestination().getLogicalY() <= emptyCell.getLogicalY()) {
-                                            mustDoMove2 = m;
-                                        }
-                                    }
-                                }
-                                if (lastChip.getCurrentCell().getLogicalY() == emptyCell.getLogicalY()) {
-                                    for (Move m: allnMoves) {
-                                        if (m.getDestination().getLogicalX() > lastChip.getCurrentCell().getLogicalX() && m.getDestination().getLogicalY() == lastChip.getCurrentCell().getLogicalY()) {
-                                            mustDoMove2 = m;
-                                        }
-                                    }
-                                }
-                            }
-                        }
-
-
-//                        for (Chip c: chipArrayList) {
-//                            if (c.getCurrentCell().getColor() != color) {
-////                                int dist = c.getCurrentCell().manhattanDistance(emptyCell);
-////                                Move mv = new Move(c.getCurrentCell(), emptyCell);
-////                                mv.setDistance(dist);
-////                                candidateMoves.add(mv);
-//
-//                                List<Cell> possibleMoves = c.findPossibleMoves(cellz);
-//                                possibleMoves.forEach(dest -> {
-//                                    Move mov = new Move(c.getCurrentCell(), dest);
-//                                    allnMoves.add(mov);
-//                                });
-//                                Log.d("","Size of possible moves" + allnMoves.size());
-//                            }
-//                        }
-//                        mustDoMove2 = allnMoves.get(0);
-//                        for (Move m: allnMoves) {
-//                            int distanceFromDestinationToCorner = m.getDestination().manhattanDistance(emptyCell);
-//                            m.setDistance(distanceFromDestinationToCorner);
-//                            // Check if the current move has a lower distance
-//                            if (distanceFromDestinationToCorner < mustDoMove2.getDistance()) {
-////                                mustDoMove2 = m;
-////                                Log.d("","Empt cell is at " +emptyCell.getLogicalX() + "x " + emptyCell.getLogicalY() + "y");
-//                            }
-//
-//
-//                        }
-                    }
-                }
-            }
+        int move = openingBook.pickMove(position.getHash(), random);
+        if (move == Moves.NONE) {
+            return Moves.NONE;
         }
-//        if (emptycell != null) {
-//            int distanceFromOriginToCorner;
-//            int distanceFromDestinationToCorner;
-//            distanceFromDestinationToCorner = mv.getDestination().manhattanDistance(lightCorner);
-//            distanceFromOriginToCorner = mv.getSource().manhattanDistance(lightCorner);
-//        }
-
-        if (numTurns < 4 || candidateMoves.isEmpty()) {
-            // submit a random move
-            Collections.shuffle(allMoves);
-            if (!allMoves.isEmpty()) {
-                while (allMoves.get(0).getDestination().getColor() != Team.NEUTRAL) {
-                    Collections.shuffle(allMoves);
-                }
+        // a different position with the same hash is astronomically unlikely, but cheap to rule out
+        int[] moves = new int[Position.MAX_MOVES];
+        int count = position.generateMoves(moves);
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == move) {
+                return move;
             }
-            return allMoves.get(0);
-        } else if (mustDoMove != null) {
-            return mustDoMove;
-        } else if (mustDoMove2 != null) {
-            return mustDoMove2;
-        } else {
-            Collections.sort(candidateMoves);
-            return candidateMoves.get(0);
         }
+        return Moves.NONE;
+    }
 
+    /**
+     * Copy the game's position for a search, so the search owns it outright.
+     *
+     * @param board      the game's position
+     * @param sideToMove the team the search moves for
+     * @return the copy
+     */
+    private static Position snapshot(Position board, Team sideToMove) {
+        Position copy = new Position(board);
+        copy.setSideToMove(sideToMove);
+        return copy;
     }
 
-    public void decrement() {
-        numTurns--;
+    /**
+     * Convert a packed engine move back into cells on the board.
+     *
+     * @param move  the packed move, or Moves.NONE
+     * @param cellz a 2D array of all the cells on the gameboard
+     * @return the matching Move, or null for Moves.NONE
+     */
+    private Move toMove(int move, Cell[][] cellz) {
+        if (move == Moves.NONE) {
+            return null;
+        }
+        int from = Moves.from(move);
+        int to = Moves.to(move);
+        return new Move(cellz[Board.x(from)][Board.y(from)], cellz[Board.x(to)][Board.y(to)]);
     }
 }
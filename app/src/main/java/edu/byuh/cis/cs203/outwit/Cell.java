@@ -5,6 +5,8 @@ import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.RectF;
 
+import edu.byuh.cis.cs203.outwit.engine.Board;
+
 /**
  * Represents a cell on the game board.
  */
@@ -14,6 +16,11 @@ public class Cell {
     private Team color; // You can use the constants NEUTRAL, DARK, or LIGHT from the Team class.
     private RectF geometry;
     private boolean occupied;
+    private static final Paint MARKER_PAINT = new Paint();
+
+    static {
+        MARKER_PAINT.setColor(Color.WHITE);
+    }
 
     /**
      * Constructs a Cell object.
@@ -82,6 +89,15 @@ public class Cell {
         return logicalY;
     }
 
+    /**
+     * Gets the bitboard square index of the cell.
+     *
+     * @return The square index (see {@link Board#square(int, int)}).
+     */
+    public int getSquare() {
+        return Board.square(logicalX, logicalY);
+    }
+
     /**
      * Gets the color of the cell.
      *
@@ -104,28 +120,6 @@ public class Cell {
         return occupied;
     }
 
-    /**
-     * Checks if placing a chip on this cell is a legal move.
-     *
-     * @param c The chip to be placed on the cell.
-     * @return True if the move is legal, false otherwise.
-     */
-    public boolean isLegalMove(Chip c) {
-        boolean legal = true;
-        if (occupied) {
-            legal = false; // if this cell already has another chip on it:
-        } else if (c.getCurrentCell().getColor() != Team.NEUTRAL && color == Team.NEUTRAL) {
-            legal = false; // the given chip is already in a "home" square but this cell's color is neutral:
-        } else if (c.getColor() == color) {
-            legal = true;  // the given chip's color is the same as this cell's color:
-        } else if (c.getCurrentCell().getColor() == Team.NEUTRAL && color == Team.NEUTRAL) {
-            legal = true; // the given chip is already on a neutral square and this cell's color is neutral
-        } else if (color != c.getColor()) {
-            legal = false; // the cell's color is different than the given chip's color:
-        }
-        return legal;
-    }
-
     public boolean contains(float x, float y){
         return geometry.contains(x,y);
     }
@@ -144,9 +138,7 @@ public class Cell {
      * @param canvas The Canvas object on which to draw the marker.
      */
     public void drawLegalMoveMarker(Canvas canvas) {
-        Paint markerPaint = new Paint();
-        markerPaint.setColor(Color.WHITE);
-        canvas.drawCircle(geometry.centerX(), geometry.centerY(), geometry.width() * 0.2f, markerPaint);
+        canvas.drawCircle(geometry.centerX(), geometry.centerY(), geometry.width() * 0.2f, MARKER_PAINT);
     }
 
     public int manhattanDistance(Cell corner) {
@@ -1,21 +1,15 @@
 package edu.byuh.cis.cs203.outwit;
 
 import android.content.Context;
-import android.content.res.Resources;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
-import android.graphics.Color;
-import android.graphics.Paint;
-import android.graphics.PointF;
 import android.graphics.Rect;
 import android.graphics.RectF;
 import android.util.Log;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import edu.byuh.cis.cs203.outwit.activities.Preferences;
+import edu.byuh.cis.cs203.outwit.engine.Position;
 import edu.byuh.cis.cs203.outwit.themes.Theme;
 
 /**
@@ -26,26 +20,38 @@ public class Chip {
     private Cell currentCell;
     private final boolean isPowerChip;
     private boolean selected;
-    private static  Paint darkChipPaint;
-    private static  Paint lightChipPaint;
-    private static  Paint powerChipPaint;
-    private PointF velocity;
     private RectF currentPosition;
     private Cell destination;
+    // where the current animation started, when, and how long it lasts
+    private final RectF startPosition;
+    private long startNanos;
+    private long durationNanos;
     private static Theme theme;
-    private Bitmap chipBitmap;
-    public static void initializeStaticPaints(Context context) {
-        theme = Preferences.getThemePref(context);
-        Resources resources = context.getResources();
+    // every look a chip can have, shared by all the chips; made on first draw
+    private static ChipAtlas atlas;
 
-        darkChipPaint = new Paint();
-        darkChipPaint.setColor(theme.getDarkCellColor());
-
-        lightChipPaint = new Paint();
-        lightChipPaint.setColor(theme.getLightCellColor());
+    /**
+     * Reads the theme the chips are drawn in. The chip atlas is drawn again on the next
+     * frame if the theme changed.
+     *
+     * @param context The context to read the preferences from.
+     */
+    public static void loadTheme(Context context) {
+        Theme newTheme = Preferences.getThemePref(context);
+        if (theme == null || newTheme.getClass() != theme.getClass()) {
+            releaseAtlas();
+        }
+        theme = newTheme;
+    }
 
-        powerChipPaint = new Paint();
-        powerChipPaint.setColor(theme.getPowerColor());
+    /**
+     * Frees the chip atlas; the next chip drawn makes a new one.
+     */
+    public static void releaseAtlas() {
+        if (atlas != null) {
+            atlas.recycle();
+            atlas = null;
+        }
     }
 
     /**
@@ -58,27 +64,17 @@ public class Chip {
         this.color = color;
         this.isPowerChip = isPowerChip;
         this.selected = false;
-        this.velocity = new PointF();
         this.currentPosition = new RectF();
+        this.startPosition = new RectF();
         this.destination = null;
     }
 
-    /**
-     * Sets the bitmap for the chip.
-     *
-     * @param context The context to get resources.
-     * @param bitmapResId The resource ID of the bitmap to use for the chip.
-     */
-    public void setChipBitmap(Context context, int bitmapResId) {
-        chipBitmap = BitmapFactory.decodeResource(context.getResources(), bitmapResId);
-    }
-
     /**
      * Is animation currently happening?
-     * @return true if the token is currently moving (i.e. has a non-zero velocity); false otherwise.
+     * @return true if the token is currently on its way to a destination; false otherwise.
      */
     public boolean isMoving() {
-        return (velocity.x != 0 || velocity.y != 0);
+        return destination != null;
     }
 
     /**
@@ -92,6 +88,22 @@ public class Chip {
         return new Chip(color, isPowerChip);
     }
 
+    /**
+     * Builds a bitboard snapshot of where the given chips currently sit.
+     *
+     * @param chips      The chips on the board.
+     * @param sideToMove The team whose turn it is.
+     * @return A Position describing the board.
+     */
+    public static Position toPosition(List<Chip> chips, Team sideToMove) {
+        Position position = new Position();
+        for (Chip chip : chips) {
+            position.put(chip.getCurrentCell().getSquare(), chip.color, chip.isPowerChip);
+        }
+        position.setSideToMove(sideToMove);
+        return position;
+    }
+
     /**
      * Gets the current cell of the chip.
      *
@@ -167,34 +179,13 @@ public class Chip {
             float chipX = currentPosition.centerX();
             float chipY = currentPosition.centerY();
             float width = currentPosition.width();
-            float height = currentPosition.height();
-
-            if (chipBitmap != null) {
-                // Draw the chip using the bitmap
-                canvas.drawBitmap(chipBitmap, null, currentPosition, null);
-            } else {
-                // Draw the chip using circles
-                Paint chipPaint = (color == Team.DARK) ? darkChipPaint : lightChipPaint;
 
-                Paint outlinePaint = new Paint();
-                outlinePaint.setStyle(Paint.Style.STROKE);
-                outlinePaint.setStrokeWidth(30);
-                outlinePaint.setColor(theme.getBorderColor());
-
-                if (selected) {
-                    Paint halo = new Paint();
-                    halo.setStrokeWidth(35);
-                    halo.setColor(Color.WHITE);
-                    canvas.drawCircle(chipX, chipY, width * 0.6f, halo);
-                }
-
-                canvas.drawCircle(chipX, chipY, width * 0.45f, outlinePaint);
-                canvas.drawCircle(chipX, chipY, width * 0.45f, chipPaint);
-
-                if (isPowerChip) {
-                    canvas.drawCircle(chipX, chipY, width * 0.2f, powerChipPaint);
-                }
+            // Draw the chip from the atlas, made again if the cells changed size
+            if (atlas == null || !atlas.fits(width)) {
+                releaseAtlas();
+                atlas = new ChipAtlas(theme, width);
             }
+            atlas.draw(canvas, color, isPowerChip, selected, chipX, chipY);
         }
     }
 
@@ -208,210 +199,67 @@ public class Chip {
         }
         currentCell = c;
         currentCell.setOccupied(true);
-        velocity.set(0,0);
+        destination = null;
         currentPosition.set(currentCell.bounds());
     }
 
     /**
-     * Sets the destination cell for the chip's movement and initiates the animation process.
-     * When called, this method sets the destination cell, updates the current cell to null (indicating
-     * that the chip has left its previous cell), sets the chip on the new destination cell, calculates
-     * the velocity based on the direction to the destination, and adjusts the velocity based on the
-     * desired step size (e.g., cellSize/3). This method is responsible for initializing the chip's
-     * movement towards the destination.
+     * Starts moving the chip toward a destination cell. The chip stays on its current
+     * cell until the animation finishes; {@link #animate(long)} then puts it on the
+     * destination.
      *
-     * @param destination The cell where the chip is moving to.
+     * @param destination    The cell where the chip is moving to.
+     * @param startNanos     When the animation starts, on the {@link System#nanoTime()} clock.
+     * @param durationMillis How long the chip takes to get there.
      */
-    public void setDestination(Cell destination) {
-        this.destination = destination;
-
-        if (destination != null) {
-            float deltaX = destination.getLogicalX() - currentCell.getLogicalX();
-            float deltaY = destination.getLogicalY() - currentCell.getLogicalY();
-
-            // Set velocity based on the direction to the destination
-            velocity.x = Math.signum(deltaX);
-            velocity.y = Math.signum(deltaY);
-
-            // Adjust velocity based on the desired step size (e.g., cellSize/3)
-            velocity.x *= currentPosition.width() / 3f;
-            velocity.y *= currentPosition.height() / 3f;
+    public void setDestination(Cell destination, long startNanos, long durationMillis) {
+        if (destination == null || destination == currentCell) {
+            this.destination = null;
+            return;
         }
+        this.destination = destination;
+        this.startNanos = startNanos;
+        this.durationNanos = Math.max(1, durationMillis) * 1_000_000L;
+        startPosition.set(currentPosition);
     }
 
     /**
      * Animates the chip's movement towards its destination.
-     * When called, this method calculates the movement delta based on the chip's velocity, updates
-     * the current position accordingly, and checks if the chip has reached its destination. If the
-     * chip is at its destination, it sets the position to the center of the destination cell.
+     * The position is worked out from the time since the animation started, so a late
+     * frame just shows the chip further along instead of slowing it down. The chip
+     * eases in and out of the move, and lands on the destination cell once the
+     * animation's time is up.
+     *
+     * @param frameTimeNanos The time of the frame being drawn, on the {@link System#nanoTime()} clock.
+     * @return true if the chip reached its destination on this frame, false otherwise.
      */
-    public boolean animate() {
-        boolean justFinished = false;
-        if (velocity.x != 0 || velocity.y != 0) {
-            float dx = destination.bounds().left - currentPosition.left;
-            float dy = destination.bounds().top - currentPosition.top;
-            if (PointF.length(dx, dy) < currentPosition.width() / 2) {
-                setCell(destination);
-                justFinished = true;
-            }
-            currentPosition.offset(velocity.x, velocity.y);
+    public boolean animate(long frameTimeNanos) {
+        if (destination == null) {
+            return false;
+        }
+        float t = (frameTimeNanos - startNanos) / (float) durationNanos;
+        if (t >= 1) {
+            setCell(destination);
+            return true;
         }
-        return justFinished;
+        float eased = ease(Math.max(0, t));
+        RectF target = destination.bounds();
+        currentPosition.offsetTo(startPosition.left + (target.left - startPosition.left) * eased,
+                startPosition.top + (target.top - startPosition.top) * eased);
+        return false;
     }
 
-
-    public List<Cell> findPossibleMoves(Cell[][] cellz) {
-        List<Cell> legalMoves = new ArrayList<>();
-        int newX, newY;
-        // final Cell currentCell = selected.getHostCell();
-        if (isPowerChip) {
-            // can we go right?
-            for (newX = currentCell.getLogicalX() + 1; newX < 9; newX++) {
-                Cell candidate = cellz[newX][currentCell.getLogicalY()];
-                if (candidate.isLegalMove(this)) {
-                    legalMoves.add(candidate);
-                } else {
-                    break;
-                }
-            }
-            // can we go left?
-            for (newX = currentCell.getLogicalX() - 1; newX >= 0; newX--) {
-                Cell candidate = cellz[newX][currentCell.getLogicalY()];
-                if (candidate.isLegalMove(this)) {
-                    legalMoves.add(candidate);
-                } else {
-                    break;
-                }
-            }
-            // can we go up?
-            for (newY = currentCell.getLogicalY() - 1; newY >= 0; newY--) {
-                Cell candidate = cellz[currentCell.getLogicalX()][newY];
-                if (candidate.isLegalMove(this)) {
-                    legalMoves.add(candidate);
-                } else {
-                    break;
-                }
-            }
-            // can we go down?
-            for (newY = currentCell.getLogicalY() + 1; newY < 10; newY++) {
-                Cell candidate = cellz[currentCell.getLogicalX()][newY];
-                if (candidate.isLegalMove(this)) {
-                    legalMoves.add(candidate);
-                } else {
-                    break;
-                }
-            }
-            // can we go up/right diagonal?
-            newX = currentCell.getLogicalX() + 1;
-            newY = currentCell.getLogicalY() - 1;
-            while (newX < 9 && newY >= 0) {
-                Cell candidate = cellz[newX][newY];
-                if (candidate.isLegalMove(this)) {
-                    legalMoves.add(candidate);
-                    newX++;
-                    newY--;
-                } else {
-                    break;
-                }
-            }
-            // can we go up/left diagonal?
-            newX = currentCell.getLogicalX() - 1;
-            newY = currentCell.getLogicalY() - 1;
-            while (newX >= 0 && newY >= 0) {
-                Cell candidate = cellz[newX][newY];
-                if (candidate.isLegalMove(this)) {
-                    legalMoves.add(candidate);
-                    newX--;
-                    newY--;
-                } else {
-                    break;
-                }
-            }
-            // can we go down/right diagonal?
-            newX = currentCell.getLogicalX() + 1;
-            newY = currentCell.getLogicalY() + 1;
-            while (newX < 9 && newY < 10) {
-                Cell candidate = cellz[newX][newY];
-                if (candidate.isLegalMove(this)) {
-                    legalMoves.add(candidate);
-                    newX++;
-                    newY++;
-                } else {
-                    break;
-                }
-            }
-            // can we go down/left diagonal?
-            newX = currentCell.getLogicalX() - 1;
-            newY = currentCell.getLogicalY() + 1;
-            while (newX >= 0 && newY < 10) {
-                Cell candidate = cellz[newX][newY];
-                if (candidate.isLegalMove(this)) {
-                    legalMoves.add(candidate);
-                    newX--;
-                    newY++;
-                } else {
-                    break;
-                }
-            }
-
-            // REGULAR CHIPS (not power chips)
-        } else {
-            // can we go right?
-            Cell vettedCandidate = null;
-            for (newX = currentCell.getLogicalX() + 1; newX < 9; newX++) {
-                Cell candidate = cellz[newX][currentCell.getLogicalY()];
-                if (candidate.isLegalMove(this)) {
-                    vettedCandidate = candidate;
-                } else {
-                    break;
-                }
-            }
-            if (vettedCandidate != null) {
-                legalMoves.add(vettedCandidate);
-            }
-            // can we go left?
-            vettedCandidate = null;
-            for (newX = currentCell.getLogicalX() - 1; newX >= 0; newX--) {
-                Cell candidate = cellz[newX][currentCell.getLogicalY()];
-                if (candidate.isLegalMove(this)) {
-                    vettedCandidate = candidate;
-                } else {
-                    break;
-                }
-            }
-            if (vettedCandidate != null) {
-                legalMoves.add(vettedCandidate);
-            }
-
-            // can we go up?
-            vettedCandidate = null;
-            for (newY = currentCell.getLogicalY() - 1; newY >= 0; newY--) {
-                Cell candidate = cellz[currentCell.getLogicalX()][newY];
-                if (candidate.isLegalMove(this)) {
-                    vettedCandidate = candidate;
-                } else {
-                    break;
-                }
-            }
-            if (vettedCandidate != null) {
-                legalMoves.add(vettedCandidate);
-            }
-
-            // can we go down?
-            vettedCandidate = null;
-            for (newY = currentCell.getLogicalY() + 1; newY < 10; newY++) {
-                Cell candidate = cellz[currentCell.getLogicalX()][newY];
-                if (candidate.isLegalMove(this)) {
-                    vettedCandidate = candidate;
-                } else {
-                    break;
-                }
-            }
-            if (vettedCandidate != null) {
-                legalMoves.add(vettedCandidate);
-            }
+    /**
+     * The easing curve of a move: a cubic that starts and ends slowly.
+     *
+     * @param t The fraction of the animation's time that has passed, from 0 to 1.
+     * @return The fraction of the distance covered, from 0 to 1.
+     */
+    static float ease(float t) {
+        if (t < 0.5f) {
+            return 4 * t * t * t;
         }
-        return legalMoves;
+        float u = 2 - 2 * t;
+        return 1 - u * u * u / 2;
     }
 }
-
@@ -0,0 +1,117 @@
+package edu.byuh.cis.cs203.outwit;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+import edu.byuh.cis.cs203.outwit.themes.Theme;
+
+/**
+ * Every look a chip can have, drawn once into a single bitmap: dark or light, power or
+ * regular, selected or not. Drawing a chip is then one bitmap copy instead of three or
+ * four circles, and all the chips share the bitmap. An atlas fits one theme and one cell
+ * size; make a new one when either changes.
+ */
+final class ChipAtlas {
+    private static final int VARIANTS = 8;
+    private static final float OUTLINE_WIDTH = 30;
+    private static final float HALO_WIDTH = 35;
+
+    private final float cellWidth;
+    private final int spriteSize;
+    private final Bitmap atlas;
+    private final Rect[] sources = new Rect[VARIANTS];
+    private final RectF destination = new RectF();
+    private final Paint blitPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+    /**
+     * Draws the atlas.
+     *
+     * @param theme     The theme whose colors the chips are drawn in.
+     * @param cellWidth The width of a cell on screen, which sets the size of the chips.
+     */
+    ChipAtlas(Theme theme, float cellWidth) {
+        this.cellWidth = cellWidth;
+        // room for the halo of a selected chip, or the outline if that is wider
+        float radius = Math.max(cellWidth * 0.6f, cellWidth * 0.45f + OUTLINE_WIDTH / 2);
+        spriteSize = (int) Math.ceil(2 * radius) + 2;
+        atlas = Bitmap.createBitmap(spriteSize * VARIANTS, spriteSize, Bitmap.Config.ARGB_8888);
+
+        Paint darkChipPaint = new Paint();
+        darkChipPaint.setColor(theme.getDarkCellColor());
+
+        Paint lightChipPaint = new Paint();
+        lightChipPaint.setColor(theme.getLightCellColor());
+
+        Paint powerChipPaint = new Paint();
+        powerChipPaint.setColor(theme.getPowerColor());
+
+        Paint outlinePaint = new Paint();
+        outlinePaint.setStyle(Paint.Style.STROKE);
+        outlinePaint.setStrokeWidth(OUTLINE_WIDTH);
+        outlinePaint.setColor(theme.getBorderColor());
+
+        Paint haloPaint = new Paint();
+        haloPaint.setStrokeWidth(HALO_WIDTH);
+        haloPaint.setColor(Color.WHITE);
+
+        Canvas canvas = new Canvas(atlas);
+        for (int variant = 0; variant < VARIANTS; variant++) {
+            Team color = (variant & 1) == 0 ? Team.DARK : Team.LIGHT;
+            boolean isPowerChip = (variant & 2) != 0;
+            boolean selected = (variant & 4) != 0;
+            float chipX = variant * spriteSize + spriteSize / 2f;
+            float chipY = spriteSize / 2f;
+
+            if (selected) {
+                canvas.drawCircle(chipX, chipY, cellWidth * 0.6f, haloPaint);
+            }
+
+            Paint chipPaint = (color == Team.DARK) ? darkChipPaint : lightChipPaint;
+            canvas.drawCircle(chipX, chipY, cellWidth * 0.45f, outlinePaint);
+            canvas.drawCircle(chipX, chipY, cellWidth * 0.45f, chipPaint);
+
+            if (isPowerChip) {
+                canvas.drawCircle(chipX, chipY, cellWidth * 0.2f, powerChipPaint);
+            }
+            sources[variant] = new Rect(variant * spriteSize, 0, (variant + 1) * spriteSize, spriteSize);
+        }
+    }
+
+    /**
+     * Checks whether the atlas was drawn for cells of a given width.
+     *
+     * @param width The width of a cell on screen.
+     * @return True if the chips in the atlas have the right size for the cells.
+     */
+    boolean fits(float width) {
+        return cellWidth == width;
+    }
+
+    /**
+     * Draws a chip, centered on a point, by copying its sprite out of the atlas.
+     *
+     * @param canvas      The canvas on which to draw the chip.
+     * @param color       The chip's team.
+     * @param isPowerChip Whether the chip is a power chip.
+     * @param selected    Whether the chip is selected, which adds a halo.
+     * @param chipX       The x-coordinate of the chip's center.
+     * @param chipY       The y-coordinate of the chip's center.
+     */
+    void draw(Canvas canvas, Team color, boolean isPowerChip, boolean selected, float chipX, float chipY) {
+        int variant = (color == Team.DARK ? 0 : 1) | (isPowerChip ? 2 : 0) | (selected ? 4 : 0);
+        float half = spriteSize / 2f;
+        destination.set(chipX - half, chipY - half, chipX + half, chipY + half);
+        canvas.drawBitmap(atlas, sources[variant], destination, blitPaint);
+    }
+
+    /**
+     * Frees the atlas bitmap. The atlas cannot be drawn from afterwards.
+     */
+    void recycle() {
+        atlas.recycle();
+    }
+}
@@ -1,10 +1,10 @@
 package edu.byuh.cis.cs203.outwit;
 
-public class Move implements Comparable<Move> {
+import edu.byuh.cis.cs203.outwit.engine.Moves;
+
+public class Move {
     private Cell source;
     private Cell destination;
-    private int distance;
-    private int weight;
 
     /**
      * Canonical constructor for the Move class.
@@ -15,9 +15,6 @@ public class Move implements Comparable<Move> {
     public Move(Cell source, Cell destination) {
         this.source = source;
         this.destination = destination;
-        this.distance = -1;
-        this.weight = -1;
-
     }
 
     /**
@@ -38,30 +35,12 @@ public class Move implements Comparable<Move> {
         return destination;
     }
 
-    public void setDistance(int md) {
-        distance = md;
-    }
-
-    public int getDistance() {
-        return distance;
-    }
-
-    public void setWeight(int w) {
-        weight = w;
-    }
-
-    @Override
-    public int compareTo(Move other) {
-        // First, compare by weight in descending order
-        int weightComparison = other.weight - this.weight;
-
-        // If weights are equal, compare by distance in ascending order
-        if (weightComparison == 0) {
-            return this.distance - other.distance;
-        }
-
-        return weightComparison;
+    /**
+     * Pack the move for the engine's position.
+     *
+     * @return The source and destination squares packed into an int (see {@link Moves}).
+     */
+    public int toPacked() {
+        return Moves.encode(source.getSquare(), destination.getSquare());
     }
-
-
 }
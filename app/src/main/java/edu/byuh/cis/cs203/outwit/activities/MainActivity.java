@@ -99,6 +99,7 @@ public class MainActivity extends AppCompatActivity {
     @Override
     public void onDestroy() {
         super.onDestroy();
+        game.shutdown();
         background_music.release();
     }
 
@@ -26,6 +26,7 @@ import androidx.preference.PreferenceManager;
 
 import java.util.Locale;
 
+import edu.byuh.cis.cs203.outwit.Bot;
 import edu.byuh.cis.cs203.outwit.R;
 import edu.byuh.cis.cs203.outwit.Team;
 import edu.byuh.cis.cs203.outwit.themes.GreyTheme;
@@ -183,14 +184,16 @@ public class Preferences extends AppCompatActivity {
         return currentPlayerInt;
     }
     /**
-     * Retrieves the preferred animation speed from the app's shared preferences.
+     * Retrieves the preferred animation speed from the app's shared preferences, as the
+     * time a chip takes to slide one square. The stored values are the delays between the
+     * steps of the old animation, which moved a chip a third of a square per step.
      *
      * @param c The application context.
-     * @return An integer representing the preferred animation speed; default is 5 if not set.
+     * @return The time per square in milliseconds; default is 15 if not set.
      */
-    public static int getSpeedPref(Context c) {
+    public static int getSquareDurationPref(Context c) {
         String speedPref = PreferenceManager.getDefaultSharedPreferences(c).getString("animation_speed", "5");
-        return Integer.parseInt(speedPref);
+        return 3 * Integer.parseInt(speedPref);
     }
     /**
      * Retrieves the preferred background music setting from the app's shared preferences.
@@ -331,6 +334,46 @@ public class Preferences extends AppCompatActivity {
                 return Team.NEUTRAL;
         }
     }
+    /**
+     * Retrieves the pondering setting from the app's shared preferences.
+     *
+     * @param c The application context.
+     * @return A boolean indicating whether the AI may think during the human's turn; default is false if not set.
+     */
+    public static boolean getPonderPref(Context c) {
+        return PreferenceManager.getDefaultSharedPreferences(c).getBoolean("pondering", false);
+    }
+    /**
+     * Retrieves the number of threads the AI searches with from the app's shared preferences.
+     *
+     * @param c The application context.
+     * @return The number of search threads; "auto" means one per processor core. Default is 1 if not
+     * set or not a number, and never more than the device has cores.
+     */
+    public static int getSearchThreadsPref(Context c) {
+        String threads = PreferenceManager.getDefaultSharedPreferences(c).getString("ai_threads", "1");
+        int cores = Runtime.getRuntime().availableProcessors();
+        if (threads.equals("auto")) {
+            return cores;
+        }
+        try {
+            return Math.max(1, Math.min(cores, Integer.parseInt(threads.trim())));
+        } catch (NumberFormatException e) {
+            Log.w("Preferences", "Unknown ai_threads value: " + threads);
+            return 1;
+        }
+    }
+    /**
+     * Retrieves the preferred AI engine from the app's shared preferences.
+     *
+     * @param c The application context.
+     * @return {@link Bot#ENGINE_ALPHA_BETA} or {@link Bot#ENGINE_MCTS}; default is alpha-beta if not
+     * set or not one of those.
+     */
+    public static String getEnginePref(Context c) {
+        String engine = PreferenceManager.getDefaultSharedPreferences(c).getString("ai_engine", Bot.ENGINE_ALPHA_BETA);
+        return engine.equals(Bot.ENGINE_MCTS) ? Bot.ENGINE_MCTS : Bot.ENGINE_ALPHA_BETA;
+    }
     /**
      * SettingsFragment represents the fragment for displaying and handling preferences.
      * It extends PreferenceFragmentCompat to manage the preferences UI.
@@ -8,6 +8,7 @@ import android.app.Activity;
 import android.app.AlertDialog;
 import android.content.Context;
 import android.content.DialogInterface;
+import android.content.res.AssetFileDescriptor;
 import android.content.res.Resources;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
@@ -18,15 +19,19 @@ import android.graphics.Rect;
 import android.graphics.RectF;
 import android.media.MediaPlayer;
 import android.util.Log;
+import android.view.Choreographer;
 import android.view.MotionEvent;
 import android.view.View;
 
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Random;
 import java.util.Stack;
 
-import android.os.Handler;
-import android.os.Message;
 import android.widget.Toast;
 
 import androidx.preference.PreferenceManager;
@@ -40,6 +45,11 @@ import edu.byuh.cis.cs203.outwit.Move;
 import edu.byuh.cis.cs203.outwit.R;
 import edu.byuh.cis.cs203.outwit.Team;
 import edu.byuh.cis.cs203.outwit.activities.Preferences;
+import edu.byuh.cis.cs203.outwit.engine.Board;
+import edu.byuh.cis.cs203.outwit.engine.EndgameTablebase;
+import edu.byuh.cis.cs203.outwit.engine.Moves;
+import edu.byuh.cis.cs203.outwit.engine.OpeningBook;
+import edu.byuh.cis.cs203.outwit.engine.Position;
 import edu.byuh.cis.cs203.outwit.themes.Theme;
 
 
@@ -51,7 +61,6 @@ public class Gameview extends View {
 
     private Theme currentTheme;
     private long startTime;
-    private long elapsedTime;
 
     private MediaPlayer moveSound;
     private boolean initialized = false;
@@ -60,16 +69,38 @@ public class Gameview extends View {
     private Paint lightBlue;
     private Paint darkBlue;
     private ArrayList<Chip> chipArrayList;
+    // the chip on each square, indexed like the board; kept in step with every move
+    private Chip[] chipsBySquare;
+    // the chip the player has picked up, if any
+    private Chip highlightedChip;
+    // the game as it stands; only committed moves change it, and the chips just show it
+    private Position board;
     private ArrayList<Cell> legalMoves;
+    private int[] moveBuffer;
     private Cell[][] cellArray;
+    // the static part of the screen, rendered once per size and theme (see renderBoardLayer)
+    private Bitmap boardLayer;
+    private float cellWidth;
+    private float cellHeight;
 
     // Constants for grid size
     private static final int NUM_ROWS = 11;
     private static final int NUM_COLS = 9;
     private static final float GAP_SIZE_RATIO = 0.01f;
     private static final float TEXT_SIZE_RATIO = 0.08f;
-    private static int ANIMATION_DELAY_MS;
-    private AnimationHandler animationHandler;
+    private static final String OPENING_BOOK_ASSET = "opening_book.bin";
+    private int squareDurationMs;
+    private AnimationScheduler animationScheduler;
+    private boolean timerShown;
+    // the turn text and where it goes, set up ahead so drawing it allocates nothing
+    private Paint textPaint;
+    private String darkName;
+    private String lightName;
+    private char[] darkTimerText;
+    private char[] lightTimerText;
+    private float hudCenterX;
+    private float hudTextY;
+    private float timerTextX;
     private Cell cellDestination;
     private Chip selectedChip;
     private Cell secondToCellDestination;
@@ -85,6 +116,8 @@ public class Gameview extends View {
         selectChip(selectedChip);
     };
     private Bot ai;
+    private OpeningBook openingBook;
+    private EndgameTablebase tablebase;
 
 
     /**
@@ -96,16 +129,20 @@ public class Gameview extends View {
         super(context);
         currentTheme = Preferences.getThemePref(context);
         initPaints();
-        setBackgroundColor(currentTheme.getBorderColor());
+        // no view background: the board layer covers the whole view, border included
         chipArrayList = new ArrayList<>();
+        chipsBySquare = new Chip[Board.SQUARES];
         legalMoves = new ArrayList<>();
+        moveBuffer = new int[Position.MAX_MOVES];
         cellArray = new Cell[NUM_COLS][NUM_ROWS];
-        // Create the animationHandler and start the animation loop
-        animationHandler = new AnimationHandler();
         // Create stack of moves
         undoStack = new Stack<>();
         currentPlayer = Preferences.getPlayerPref(context);
-        ANIMATION_DELAY_MS = Preferences.getSpeedPref(context);
+        squareDurationMs = Preferences.getSquareDurationPref(context);
+        timerShown = Preferences.getTimerPref(context);
+        loadPlayerNames();
+        // Create the animationScheduler; it only runs while there is something to show
+        animationScheduler = new AnimationScheduler();
         moveSound = MediaPlayer.create(context, R.raw.capture); // Load your sound file here
         moveSound.setLooping(false);
         // Initialize the start time
@@ -114,19 +151,29 @@ public class Gameview extends View {
     }
 
     /**
-     * The AnimationHandler class is responsible for handling animation events in the Gameview class.
-     * It extends the Handler class and is used to schedule and control animations for chips on the game board.
+     * The AnimationScheduler class drives the chip animations from the display's frame
+     * callbacks. It only asks for frames while a chip is moving, or once a second while
+     * the timer is shown, so an idle board uses no CPU between touches. Anything that
+     * starts an animation or changes what is on screen calls {@link #wake()}.
      */
-    private class AnimationHandler extends Handler {
+    private class AnimationScheduler implements Choreographer.FrameCallback {
 
         private boolean paused;
+        private boolean scheduled;
+
+        /**
+         * Constructs an AnimationScheduler object and schedules the first frame.
+         */
+        public AnimationScheduler() {
+            resume();
+        }
 
         /**
          * Start the timer
          */
         public void resume() {
             paused = false;
-            sendMessageDelayed(obtainMessage(), 10);
+            wake();
         }
 
         /**
@@ -134,30 +181,60 @@ public class Gameview extends View {
          */
         public void pause() {
             paused = true;
-            removeCallbacksAndMessages(null);
+            unschedule();
         }
 
         /**
-         * Constructs an AnimationHandler object and schedules the first animation event.
+         * Asks for a frame on the next vsync, bringing forward a delayed one (e.g. the
+         * timer's next tick) if there is one.
          */
-        public AnimationHandler() {
-            resume();
+        public void wake() {
+            if (!paused) {
+                unschedule();
+                scheduled = true;
+                Choreographer.getInstance().postFrameCallback(this);
+            }
+        }
+
+        /**
+         * Asks for a frame after a delay, replacing any frame already on its way.
+         *
+         * @param delayMillis How long to wait before the frame.
+         */
+        private void wakeAfter(long delayMillis) {
+            unschedule();
+            scheduled = true;
+            Choreographer.getInstance().postFrameCallbackDelayed(this, delayMillis);
+        }
+
+        /**
+         * Cancels the frame on its way, if any.
+         */
+        private void unschedule() {
+            if (scheduled) {
+                Choreographer.getInstance().removeFrameCallback(this);
+                scheduled = false;
+            }
         }
 
         /**
-         * Handles animation messages by updating the chip's position and refreshing the display.
-         * If a cell destination is set, it moves the selected chip towards the destination using the
-         * `animate` method. It then invalidates the view to trigger a redraw, and schedules the next
-         * animation event after a delay.
+         * Handles a frame by updating the chips' positions and refreshing the display.
+         * If a cell destination is set, it moves the selected chip to where it should be at the
+         * frame's time using the `animate` method. It then invalidates the view to trigger a
+         * redraw, and asks for the next frame if a chip is still on its way or if the timer has
+         * to tick.
          *
-         * @param msg The message to handle.
+         * @param frameTimeNanos The time the frame started rendering, in nanoseconds.
          */
         @Override
-        public void handleMessage(Message msg) {
+        public void doFrame(long frameTimeNanos) {
+            scheduled = false;
+            if (paused) {
+                return;
+            }
             boolean animationFinished = false;
             if (cellDestination != null) {
-                selectedChip.setDestination(cellDestination);
-                animationFinished = selectedChip.animate();
+                animationFinished = selectedChip.animate(frameTimeNanos);
 
                 if (animationFinished) {
                     checkForWinner(); // Check for a winner when the animation finishes
@@ -165,8 +242,7 @@ public class Gameview extends View {
             }
             boolean secondAnimationFinished = false;
             if (secondToCellDestination != null) {
-                secondToSelectedChip.setDestination(secondToCellDestination);
-                secondAnimationFinished = secondToSelectedChip.animate();
+                secondAnimationFinished = secondToSelectedChip.animate(frameTimeNanos);
 
                 if (secondAnimationFinished) {
                     checkForWinner(); // Check for a winner when the animation finishes
@@ -175,15 +251,33 @@ public class Gameview extends View {
 
             if (animationFinished && currentPlayer == computerPlayer) {
                 makeAiMove();
+            } else if (animationFinished) {
+                startPondering();
             }
 
             invalidate(); // Refresh the display
 
-            if (!paused) {
-                // Schedule the next animation event
-                sendMessageDelayed(obtainMessage(), ANIMATION_DELAY_MS);
+            if (paused) {
+                return; // the game ended on this frame
+            }
+            if (isAnimating()) {
+                wake();
+            } else if (timerShown && !stopGame) {
+                // the timer shows whole seconds, so wait for the next one
+                wakeAfter(1000 - (System.currentTimeMillis() - startTime) % 1000);
             }
         }
+
+        /**
+         * Checks whether a chip still has to reach its destination.
+         *
+         * @return true if the selected chip, or the second chip of an undo, is on its way
+         */
+        private boolean isAnimating() {
+            return (cellDestination != null && !selectedChip.areYouHere(cellDestination))
+                    || (secondToCellDestination != null
+                    && !secondToSelectedChip.areYouHere(secondToCellDestination));
+        }
     }
 
 
@@ -200,6 +294,8 @@ public class Gameview extends View {
         darkBlue = createPaint(currentTheme.getDarkCellColor());
 
         black.setTextSize(100);
+
+        textPaint = createPaint(Color.BLACK); // Set the text color
     }
 
 
@@ -224,129 +320,223 @@ public class Gameview extends View {
     public void onDraw(Canvas canvas) {
         int canvasWidth = canvas.getWidth();
         int canvasHeight = canvas.getHeight();
-        float gapSize = Math.min(canvasWidth, canvasHeight) * GAP_SIZE_RATIO;
-        // Calculate the text size based on screen dimensions
-        float textSize = Math.min(canvasWidth, canvasHeight) * TEXT_SIZE_RATIO;
-
-        float squareWidth = (canvasWidth - (NUM_COLS + 1) * gapSize) / NUM_COLS;
-        float squareHeight = (canvasHeight - (NUM_ROWS + 1) * gapSize) / NUM_ROWS;
-
-        float x = gapSize;
-        float y = gapSize;
 
         if (!initialized) {
-            // Loop through rows and columns to draw the grid of colored squares
+            cellWidth = canvasWidth / (float) NUM_COLS;
+            cellHeight = canvasHeight / (float) NUM_ROWS;
             for (int i = 0; i < NUM_ROWS - 1; i++) {
                 for (int j = 0; j < NUM_COLS; j++) {
-                    cellArray[j][i] = new Cell(j, i, determineTeam(j, i), canvasWidth/9f, canvasHeight/11f);
-                    x += (squareWidth + gapSize);
+                    cellArray[j][i] = new Cell(j, i, determineTeam(j, i), cellWidth, cellHeight);
                 }
-                x = gapSize;
-                y += (squareHeight + gapSize);
             }
 
             for (int i = 0, j = 0; i < NUM_COLS; i++, j++) {
                 createAndAddChips(j, i);
             }
-            ai = new Bot(computerPlayer, chipArrayList);
+            Arrays.fill(chipsBySquare, null);
+            for (Chip chip : chipArrayList) {
+                chipsBySquare[chip.getCurrentCell().getSquare()] = chip;
+            }
+            highlightedChip = null;
+            board = Chip.toPosition(chipArrayList, currentPlayer);
+            if (ai != null) {
+                ai.shutdown();
+            }
+            ai = new Bot(computerPlayer, Bot.createEngine(
+                    Preferences.getEnginePref(getContext()), Preferences.getSearchThreadsPref(getContext())));
+            ai.setOpeningBook(loadOpeningBook());
+            ai.setTablebase(loadTablebase());
             if (currentPlayer == computerPlayer) {
                 makeAiMove();
+            } else {
+                startPondering();
             }
             initialized = true;
         }
 
+        // the squares, the bottom bar and the undo button never change during a game
+        if (boardLayer == null) {
+            boardLayer = renderBoardLayer(canvasWidth, canvasHeight);
+        }
+        canvas.drawBitmap(boardLayer, 0, 0, null);
 
-        // Loop through rows and columns to draw the grid of colored squares
-        for (int i = 0; i < NUM_ROWS - 1; i++) {
-            for (int j = 0; j < NUM_COLS; j++) {
-                RectF rectangle = new RectF(x, y, x + squareWidth, y + squareHeight);
-                Paint squarePaint = determineSquareColor(j, i);
-                canvas.drawRect(rectangle, squarePaint);
-                x += (squareWidth + gapSize);
-            }
-            x = gapSize;
-            y += (squareHeight + gapSize);
+        // indexed loops: an iterator per frame is garbage
+        for (int i = 0; i < chipArrayList.size(); i++) {
+            chipArrayList.get(i).draw(canvas);
         }
 
-        for (Chip chip : chipArrayList) {
-            chip.draw(canvas);
+        for (int i = 0; i < legalMoves.size(); i++) {
+            legalMoves.get(i).drawLegalMoveMarker(canvas);
         }
 
-        for (Cell cell : legalMoves) {
-            cell.drawLegalMoveMarker(canvas);
+        if (timerShown){
+            // Display whose turn it is along with the timer
+            char[] text = (currentPlayer == Team.LIGHT) ? lightTimerText : darkTimerText;
+            writeTime(text, System.currentTimeMillis() - startTime);
+            canvas.drawText(text, 0, text.length, timerTextX, hudTextY, textPaint);
+
+        } else{
+            // Display whose turn it is
+            String currentPlayerText = (currentPlayer == Team.LIGHT) ? lightName : darkName;
+            float textX = hudCenterX - (textPaint.measureText(currentPlayerText) / 2);
+            canvas.drawText(currentPlayerText, textX, hudTextY, textPaint);
         }
+    }
 
-        // Calculate the position for the image row (last row)
-        float imageRowY = y; // Last row
-        float imageX = canvasWidth - (squareWidth * 2) - gapSize; // Adjust as needed
+    /**
+     * Drops the cached board layer when the view changes size, so the next frame
+     * renders it again at the new size.
+     *
+     * @param w    The new width of the view.
+     * @param h    The new height of the view.
+     * @param oldw The old width of the view.
+     * @param oldh The old height of the view.
+     */
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        releaseBoardLayer();
+        layoutHud(w, h);
+    }
 
-        // Draw a rectangle for the image row
-        Paint imageRowRectanglePaint = createPaint(Color.WHITE); // Change color as needed
-        RectF imageRowRect = new RectF(gapSize, imageRowY, canvasWidth - gapSize, imageRowY + squareHeight);
-        canvas.drawRect(imageRowRect, imageRowRectanglePaint);
+    /**
+     * Works out where the turn text goes in the bottom row, so drawing it takes no
+     * measuring (and no allocation) per frame.
+     *
+     * @param canvasWidth  The width of the view.
+     * @param canvasHeight The height of the view.
+     */
+    private void layoutHud(int canvasWidth, int canvasHeight) {
+        float gapSize = Math.min(canvasWidth, canvasHeight) * GAP_SIZE_RATIO;
+        // Calculate the text size based on screen dimensions
+        float textSize = Math.min(canvasWidth, canvasHeight) * TEXT_SIZE_RATIO;
+        float squareHeight = (canvasHeight - (NUM_ROWS + 1) * gapSize) / NUM_ROWS;
 
-        // Draw your image in the image row (scaled to the size of a cell)
-        Bitmap image = BitmapFactory.decodeResource(getResources(), R.drawable.undo);
-        imageBounds = new Rect((int) imageX, (int) imageRowY, (int) (imageX + squareWidth * 2), (int) (imageRowY + squareHeight));
-        canvas.drawBitmap(image, null, imageBounds, null);
+        // The image row is the last row
+        float imageRowY = gapSize + (NUM_ROWS - 1) * (squareHeight + gapSize);
 
         // Calculate the X-coordinate for the center of the canvas
-        float centerX = (canvasWidth/2);
+        hudCenterX = (canvasWidth/2);
 
         // Calculate the Y-coordinate for the center of the last row
         float centerY = imageRowY + (squareHeight / 2);
 
         // Set the text size for the Paint object
-        Paint textPaint = new Paint();
         textPaint.setTextSize(textSize);
-        textPaint.setColor(Color.BLACK); // Set the text color
 
-        // Calculate the X-coordinate for the start of the text to center it
+        // Calculate the Y-coordinate for the text to center it vertically
+        Paint.FontMetrics metrics = textPaint.getFontMetrics();
+        hudTextY = centerY + (metrics.bottom - metrics.top) / 2 - metrics.bottom;
+
+        // The timer text starts near the left edge
+        timerTextX = canvasWidth/10;
+    }
+
+    /**
+     * Reads the players' names from the preferences and prepares the timer text for
+     * each, "name - 00:00", whose time {@link #writeTime(char[], long)} updates in place.
+     */
+    private void loadPlayerNames() {
         Resources resources = getResources();
-        String playerName1 = PreferenceManager.getDefaultSharedPreferences(getContext())
+        darkName = PreferenceManager.getDefaultSharedPreferences(getContext())
                 .getString( "dark", resources.getString(R.string.darks_turn));
-        String playerName2 = PreferenceManager.getDefaultSharedPreferences(getContext())
+        lightName = PreferenceManager.getDefaultSharedPreferences(getContext())
                 .getString( "light", resources.getString(R.string.lights_turn));
-        String currentPlayerText = (currentPlayer == Team.LIGHT) ? playerName2 : playerName1;
+        darkTimerText = (darkName + " - 00:00").toCharArray();
+        lightTimerText = (lightName + " - 00:00").toCharArray();
+    }
 
-        float textX = centerX - (textPaint.measureText(currentPlayerText) / 2);
+    /**
+     * Renders the parts of the screen that stay the same for the whole game into an
+     * offscreen bitmap: the border, the grid of colored squares, the bottom bar and the
+     * undo button. A change of size or theme makes the layer stale.
+     *
+     * @param canvasWidth  The width of the view.
+     * @param canvasHeight The height of the view.
+     * @return The board layer, the size of the view.
+     */
+    private Bitmap renderBoardLayer(int canvasWidth, int canvasHeight) {
+        float gapSize = Math.min(canvasWidth, canvasHeight) * GAP_SIZE_RATIO;
+        float squareWidth = (canvasWidth - (NUM_COLS + 1) * gapSize) / NUM_COLS;
+        float squareHeight = (canvasHeight - (NUM_ROWS + 1) * gapSize) / NUM_ROWS;
 
-        // Calculate the Y-coordinate for the text to center it vertically
-        float textY = centerY + (textPaint.getFontMetrics().bottom - textPaint.getFontMetrics().top) / 2 - textPaint.getFontMetrics().bottom;
+        Bitmap layer = Bitmap.createBitmap(canvasWidth, canvasHeight, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(layer);
+        canvas.drawColor(currentTheme.getBorderColor());
 
-        if (Preferences.getTimerPref(getContext())){
-            // Calculate elapsed time
-            elapsedTime = System.currentTimeMillis() - startTime;
+        float x = gapSize;
+        float y = gapSize;
+        // Loop through rows and columns to draw the grid of colored squares
+        for (int i = 0; i < NUM_ROWS - 1; i++) {
+            for (int j = 0; j < NUM_COLS; j++) {
+                RectF rectangle = new RectF(x, y, x + squareWidth, y + squareHeight);
+                Paint squarePaint = determineSquareColor(j, i);
+                canvas.drawRect(rectangle, squarePaint);
+                x += (squareWidth + gapSize);
+            }
+            x = gapSize;
+            y += (squareHeight + gapSize);
+        }
 
-            // Calculate the X-coordinate for the start of the text to center it
-            float timetextX =  canvasWidth/10;
+        // Calculate the position for the image row (last row)
+        float imageRowY = y; // Last row
+        float imageX = canvasWidth - (squareWidth * 2) - gapSize; // Adjust as needed
+
+        // Draw a rectangle for the image row
+        Paint imageRowRectanglePaint = createPaint(Color.WHITE); // Change color as needed
+        RectF imageRowRect = new RectF(gapSize, imageRowY, canvasWidth - gapSize, imageRowY + squareHeight);
+        canvas.drawRect(imageRowRect, imageRowRectanglePaint);
 
-            // Calculate the Y-coordinate for the text to center it vertically
-            float timetextY = centerY + (textPaint.getFontMetrics().bottom - textPaint.getFontMetrics().top) / 2 - textPaint.getFontMetrics().bottom;
+        // Draw your image in the image row (scaled to the size of a cell)
+        Bitmap image = BitmapFactory.decodeResource(getResources(), R.drawable.undo);
+        imageBounds = new Rect((int) imageX, (int) imageRowY, (int) (imageX + squareWidth * 2), (int) (imageRowY + squareHeight));
+        canvas.drawBitmap(image, null, imageBounds, null);
+        image.recycle();
+        return layer;
+    }
 
-            // Display whose turn it is along with the timer
-            canvas.drawText(currentPlayerText + " - " + formatTime(elapsedTime), timetextX, timetextY, textPaint);
+    /**
+     * Reads the theme from the preferences again, and if it changed, remakes the paints
+     * and drops the board layer so the next frame renders it in the new colors.
+     */
+    private void refreshTheme() {
+        Theme theme = Preferences.getThemePref(getContext());
+        if (theme.getClass() != currentTheme.getClass()) {
+            currentTheme = theme;
+            initPaints();
+            layoutHud(getWidth(), getHeight());
+            releaseBoardLayer();
+        }
+    }
 
-        } else{
-            // Display whose turn it is
-            canvas.drawText(currentPlayerText, textX, textY, textPaint);
+    /**
+     * Frees the cached board layer; the next frame renders a new one.
+     */
+    private void releaseBoardLayer() {
+        if (boardLayer != null) {
+            boardLayer.recycle();
+            boardLayer = null;
         }
     }
 
     /**
-     * Formats the elapsed time in milliseconds into a human-readable string in the format HH:MM:SS.
+     * Writes the elapsed time into the last five characters of a timer text, in the
+     * format MM:SS, without creating a string.
      *
+     * @param text   The timer text, ending in "MM:SS".
      * @param millis The elapsed time in milliseconds.
-     * @return A formatted string representing the elapsed time.
      */
-    private String formatTime(long millis) {
+    private static void writeTime(char[] text, long millis) {
         int seconds = (int) (millis / 1000) % 60;
         int minutes = (int) ((millis / (1000 * 60)) % 60);
 
-        return String.format("%02d:%02d", minutes, seconds);
+        int end = text.length;
+        text[end - 5] = (char) ('0' + minutes / 10);
+        text[end - 4] = (char) ('0' + minutes % 10);
+        text[end - 2] = (char) ('0' + seconds / 10);
+        text[end - 1] = (char) ('0' + seconds % 10);
     }
 
-
     /**
      * Determine the color of the square based on its position.
      *
@@ -399,7 +589,7 @@ public class Gameview extends View {
         }
 
         String chipLayout = Preferences.getChipLayoutPref(getContext());
-        Chip.initializeStaticPaints(getContext());
+        Chip.loadTheme(getContext());
         // Create dark chip and light chip
         Chip darkChip = Chip.createChip(Team.DARK, isPowerchip);
         Chip lightChip = Chip.createChip(Team.LIGHT, isPowerchip);
@@ -407,11 +597,6 @@ public class Gameview extends View {
         chipArrayList.add(darkChip);
         chipArrayList.add(lightChip);
 
-//        if (Preferences.getThemeChipResource(getContext())) {
-//            darkChip.setChipBitmap(getContext(), R.drawable.darkchip);
-//            lightChip.setChipBitmap(getContext(), R.drawable.lightchip);
-//        }
-
         if (chipLayout.equals("standard")) {
             darkChip.setCell(cellArray[x][y]);
             lightChip.setCell(cellArray[x][y + 1]);
@@ -458,10 +643,10 @@ public class Gameview extends View {
 
             if (isUndoImageClicked(event.getX(), event.getY())) {
                 undoLastMove();
-                invalidate(); // Redraw the screen
-            } else {
-                    handleChipTouch(event.getX(), event.getY());
-                invalidate(); // Redraw the screen
+                animationScheduler.wake(); // Redraw the screen and start any animation
+            } else if (!ai.isThinking()) { // the AI's chips are off limits while it thinks
+                handleChipTouch(event.getX(), event.getY());
+                animationScheduler.wake(); // Redraw the screen and start any animation
             }
         }
         return true;
@@ -482,6 +667,9 @@ public class Gameview extends View {
      * Stub for undoing the last move. Does nothing except print a message to LogCat.
      */
     public void undoLastMove() {
+        // Step 0: Abandon the AI's search, if it is thinking about a move
+        ai.cancel();
+
         // Step 1: Unselect the currently selected chip (if any)
         unselectChips();
 
@@ -494,25 +682,31 @@ public class Gameview extends View {
             Toast.makeText(getContext(), R.string.undo, Toast.LENGTH_SHORT).show();
         } else {
             // Step 4: Pop the top Move off the undo stack
-            ai.decrement();
             Move lastMove = undoStack.pop();
+            board.unmakeMove(lastMove.toPacked());
             Cell current = lastMove.getDestination();
             Cell moveTo = lastMove.getSource();
-            selectedChip = findChipAt(current);
+            selectedChip = moveChip(current, moveTo);
             cellDestination = moveTo;
+            startMoving(selectedChip, cellDestination);
             currentPlayer = (currentPlayer == Team.LIGHT) ? Team.DARK : Team.LIGHT;
 
             if (Preferences.getHumanResource(getContext()) && undoStack.size() >= 2) {
                 Move secondToLastMove = undoStack.pop();
+                board.unmakeMove(secondToLastMove.toPacked());
                 Cell secondToCurrent = secondToLastMove.getDestination();
                 Cell secondToMoveTo = secondToLastMove.getSource();
-                secondToSelectedChip = findChipAt(secondToCurrent);
+                secondToSelectedChip = moveChip(secondToCurrent, secondToMoveTo);
                 secondToCellDestination = secondToMoveTo;
+                startMoving(secondToSelectedChip, secondToCellDestination);
 
                 // Swap the current player
                 currentPlayer = (currentPlayer == Team.LIGHT) ? Team.DARK : Team.LIGHT;
             }
 
+            // passes are not on the undo stack, so the turn is taken from currentPlayer
+            board.setSideToMove(currentPlayer);
+
             // Step 5: Limit the size of the undo stack
             limitUndoStackSize();
         }
@@ -538,12 +732,52 @@ public class Gameview extends View {
      * @return the Chip currently sitting on that Cell, or null if the cell is vacant.
      */
     private Chip findChipAt(Cell cell) {
-        for (Chip c : chipArrayList) {
-            if (c.areYouHere(cell)) {
-                return c;
-            }
+        return chipsBySquare[cell.getSquare()];
+    }
+
+    /**
+     * Moves a chip to another square in the square index. The chip itself only gets
+     * there once its animation finishes.
+     *
+     * @param from the cell the chip is leaving
+     * @param to   the cell it is moving to
+     * @return the chip that moved
+     */
+    private Chip moveChip(Cell from, Cell to) {
+        Chip chip = chipsBySquare[from.getSquare()];
+        chipsBySquare[from.getSquare()] = null;
+        chipsBySquare[to.getSquare()] = chip;
+        return chip;
+    }
+
+    /**
+     * Starts a chip's animation toward its destination, taking the time per square set
+     * in the preferences. Diagonal steps take as long as straight ones.
+     *
+     * @param chip        the chip to animate
+     * @param destination the cell it is moving to
+     */
+    private void startMoving(Chip chip, Cell destination) {
+        Cell source = chip.getCurrentCell();
+        int squares = Math.max(Math.abs(destination.getLogicalX() - source.getLogicalX()),
+                Math.abs(destination.getLogicalY() - source.getLogicalY()));
+        chip.setDestination(destination, System.nanoTime(), (long) squares * squareDurationMs);
+    }
+
+    /**
+     * Finds the board cell under a point on the screen, from the size of the cells.
+     *
+     * @param x The x-coordinate of the point.
+     * @param y The y-coordinate of the point.
+     * @return The cell, or null if the point is off the board (e.g. on the bottom bar).
+     */
+    private Cell cellAt(float x, float y) {
+        int logicalX = (int) Math.floor(x / cellWidth);
+        int logicalY = (int) Math.floor(y / cellHeight);
+        if (!Board.onBoard(logicalX, logicalY)) {
+            return null;
         }
-        return null;
+        return cellArray[logicalX][logicalY];
     }
 
     /**
@@ -553,43 +787,44 @@ public class Gameview extends View {
      * @param y The y-coordinate of the touch event.
      */
     private void handleChipTouch(float x, float y) {
-        for (Cell c : legalMoves) {
-            if (c.contains(x, y)) {
-                cellDestination = c;
-                Cell cellSource = selectedChip.getCurrentCell();
-
-                // Create a Move object and push it onto the undoStack
-                Move move = new Move(cellSource, cellDestination);
-                undoStack.push(move);
-
-                // Swap the current player
-                currentPlayer = (currentPlayer == Team.LIGHT) ? Team.DARK : Team.LIGHT;
-
-                if (Preferences.getSoundPref(getContext())) {
-                    moveSound.start();
-                }
+        Cell touched = cellAt(x, y);
+        if (touched != null && legalMoves.contains(touched)) {
+            cellDestination = touched;
+            Cell cellSource = selectedChip.getCurrentCell();
+
+            // Stop pondering; the AI's real search starts once this move lands
+            ai.cancel();
+
+            // Create a Move object and push it onto the undoStack
+            Move move = new Move(cellSource, cellDestination);
+            undoStack.push(move);
+            board.makeMove(move.toPacked());
+            moveChip(cellSource, cellDestination);
+            startMoving(selectedChip, cellDestination);
+
+            // Swap the current player
+            currentPlayer = (currentPlayer == Team.LIGHT) ? Team.DARK : Team.LIGHT;
 
-                break;
-            } else {
-                cellDestination = null;
-                secondToCellDestination = null;
+            if (Preferences.getSoundPref(getContext())) {
+                moveSound.start();
             }
+        } else if (!legalMoves.isEmpty()) {
+            cellDestination = null;
+            secondToCellDestination = null;
         }
 
         legalMoves.clear();
 
         boolean chipTapped = false;
 
-        for (Chip chip : chipArrayList) {
-            if (chip.contains(x, y) && chip.getColor() == currentPlayer) {
-                selectedChip = chip;
-                cellDestination = null;
-                secondToCellDestination = null;
-                if (!chip.isSelected()) {
-                    chipSelectionAction.accept(chip); // Use the Consumer to handle chip selection
-                    chipTapped = true;
-                }
-                break;
+        Chip chip = touched != null ? findChipAt(touched) : null;
+        if (chip != null && chip.getColor() == currentPlayer) {
+            selectedChip = chip;
+            cellDestination = null;
+            secondToCellDestination = null;
+            if (!chip.isSelected()) {
+                chipSelectionAction.accept(chip); // Use the Consumer to handle chip selection
+                chipTapped = true;
             }
         }
 
@@ -598,17 +833,101 @@ public class Gameview extends View {
         }
     }
 
+    /**
+     * Memory-maps the opening book from the app's assets.
+     *
+     * @return the book, or null if it cannot be opened (the AI then searches every move)
+     */
+    private OpeningBook loadOpeningBook() {
+        if (openingBook == null) {
+            try {
+                openingBook = new OpeningBook(mapAsset(OPENING_BOOK_ASSET));
+            } catch (IOException e) {
+                Log.w("Gameview", "Opening book not available", e);
+            }
+        }
+        return openingBook;
+    }
+
+    /**
+     * Memory-maps the endgame tablebase of the chipset in play from the app's assets.
+     *
+     * @return the tablebase, or null if it cannot be opened (the AI then searches every move)
+     */
+    private EndgameTablebase loadTablebase() {
+        String chipset = Preferences.getChipsetPref(getContext());
+        if (tablebase == null || !tablebase.getChipset().equals(chipset)) {
+            tablebase = null;
+            try {
+                tablebase = new EndgameTablebase(mapAsset("endgame_" + chipset + ".bin"));
+            } catch (IOException e) {
+                Log.w("Gameview", "Endgame tablebase not available", e);
+            }
+        }
+        return tablebase;
+    }
+
+    /**
+     * Memory-maps an asset. Assets ending in .bin are stored uncompressed in the APK,
+     * so they can be mapped in place instead of being read onto the heap.
+     *
+     * @param name the asset's file name
+     * @return the asset's bytes
+     * @throws IOException if the asset is missing or cannot be mapped
+     */
+    private ByteBuffer mapAsset(String name) throws IOException {
+        try (AssetFileDescriptor descriptor = getContext().getAssets().openFd(name);
+             FileInputStream in = descriptor.createInputStream()) {
+            return in.getChannel().map(FileChannel.MapMode.READ_ONLY,
+                    descriptor.getStartOffset(), descriptor.getLength());
+        }
+    }
+
     /**
      * Makes a move for the AI player.
-     * This method randomly selects a chip from the available chips,
-     * then selects a legal move for the chip and updates the game state accordingly.
+     * This method asks the bot to search a snapshot of the current position on its
+     * background thread; the result is applied by {@link #applyAiMove(Move)}.
      */
     private void makeAiMove() {
-        Move aiMove = ai.getMove(cellArray);
+        if (stopGame) {
+            return;
+        }
+        ai.requestMove(board, cellArray, this::post, this::applyAiMove);
+    }
+
+    /**
+     * Lets the AI think about the human's position while the human decides on a move,
+     * if the player turned pondering on. Does nothing in two-player games.
+     */
+    private void startPondering() {
+        if (stopGame || computerPlayer == Team.NEUTRAL || currentPlayer == computerPlayer
+                || !Preferences.getPonderPref(getContext())) {
+            return;
+        }
+        ai.startPondering(board);
+    }
+
+    /**
+     * Plays the move chosen by the AI. Runs on the UI thread once the background
+     * search has finished.
+     *
+     * @param aiMove the AI's move, or null if it has no legal move
+     */
+    private void applyAiMove(Move aiMove) {
+        if (aiMove == null) {
+            // the AI is blocked in, so it passes its turn
+            board.makeMove(Moves.NONE);
+            currentPlayer = (currentPlayer == Team.LIGHT) ? Team.DARK : Team.LIGHT;
+            startPondering();
+            animationScheduler.wake(); // show whose turn it is
+            return;
+        }
         undoStack.push(aiMove);
-        Chip chipToMove = getChipAt(aiMove.getSource());
+        board.makeMove(aiMove.toPacked());
+        Chip chipToMove = moveChip(aiMove.getSource(), aiMove.getDestination());
         selectedChip = chipToMove;
         cellDestination = aiMove.getDestination();
+        startMoving(selectedChip, cellDestination);
         // Swap the current player
         currentPlayer = (currentPlayer == Team.LIGHT) ? Team.DARK : Team.LIGHT;
 
@@ -619,39 +938,22 @@ public class Gameview extends View {
 
         // Clear the legalMoves list and reset chipTapped flag
         legalMoves.clear();
+        animationScheduler.wake();
     }
 
 
 
     /**
-     * Checks for a winner in the game by counting the number of chips in their respective home cells.
-     * If one team reaches 9 chips in their home, a winner dialog is displayed.
+     * Checks for a winner in the game from the home counts the board keeps up to date.
+     * If one team has all 9 chips in its home, a winner dialog is displayed.
      */
     private void checkForWinner() {
-        int lightChipsInHome = 0; // Counter for light chips in their home
-        int darkChipsInHome = 0;  // Counter for dark chips in their home
-
-        // Iterate through all chips on the board
-        for (Chip chip : chipArrayList) {
-            Team chipColor = chip.getColor(); // Get the color of the current chip
-            Team currentCellColor = chip.getCurrentCell().getColor(); // Get the color of the cell where the chip is
-
-            // Check if the chip color and the cell color match for light team
-            if (chipColor == Team.LIGHT && currentCellColor == Team.LIGHT) {
-                lightChipsInHome++; // Increment the counter for light chips in home
-            } else if (chipColor == Team.DARK && currentCellColor == Team.DARK) {
-                darkChipsInHome++; // Increment the counter for dark chips in home
-            }
-        }
-
         // Check if the game should continue
         if (!stopGame) {
-            // Check if the light team has reached 9 chips in their home
-            if (lightChipsInHome == 9) {
+            Team winner = board.winner();
+            if (winner == Team.LIGHT) {
                 showWinnerDialog("Light"); // Display the winner dialog for the light team
-            }
-            // Check if the dark team has reached 9 chips in their home
-            else if (darkChipsInHome == 9) {
+            } else if (winner == Team.DARK) {
                 showWinnerDialog("Dark"); // Display the winner dialog for the dark team
             }
         }
@@ -663,20 +965,24 @@ public class Gameview extends View {
      * @param winner The name of the winning team (e.g., "Light" or "Dark").
      */
     private void showWinnerDialog(String winner) {
-        animationHandler.pause();
+        stopGame = true;
+        ai.cancel();
+        animationScheduler.pause();
         AlertDialog.Builder builder = new AlertDialog.Builder(getContext());
         builder.setTitle("Winner: " + winner)
                 .setMessage(winner + " team won the game!")
                 .setPositiveButton("Restart", new DialogInterface.OnClickListener() {
                     @Override
                     public void onClick(DialogInterface dialog, int which) {
+                        ai.cancel();
                         chipArrayList.clear();
                         undoStack.clear();
                         currentPlayer = (Math.random() < 0.5) ? Team.LIGHT : Team.DARK;
+                        refreshTheme(); // the new game's chips take the current theme too
                         stopGame = false; // Set stopGame to false here
                         initialized = false;
                         invalidate();
-                        animationHandler.resume();
+                        animationScheduler.resume();
                     }
                 })
                 .setNegativeButton("Exit", (dialog, which) ->
@@ -696,84 +1002,26 @@ public class Gameview extends View {
      * @param selectedChip The chip to be selected.
      */
     private void selectChip(Chip selectedChip) {
-        selectedChip.setSelected(true);
-        for (Chip chip : chipArrayList) {
-            if (chip != selectedChip) {
-                chip.setSelected(false);
-            }
-        }
-
-        Cell selectedCell = selectedChip.getCurrentCell();
-        int logicalX = selectedCell.getLogicalX();
-        int logicalY = selectedCell.getLogicalY();
-        addLegalMovesInDirection(selectedChip, logicalX, logicalY, 1, 0); // Right
-        addLegalMovesInDirection(selectedChip, logicalX, logicalY, -1, 0); // Left
-        addLegalMovesInDirection(selectedChip, logicalX, logicalY, 0, 1); // Down
-        addLegalMovesInDirection(selectedChip, logicalX, logicalY, 0, -1); // Up
-        if (selectedChip.isPowerChip()) {
-            // Handle power chip moves
-            addLegalMovesInDirection(selectedChip, logicalX, logicalY, 1, -1); // Up-Right
-            addLegalMovesInDirection(selectedChip, logicalX, logicalY, -1, -1); // Up-Left
-            addLegalMovesInDirection(selectedChip, logicalX, logicalY, -1, 1); // Down-Left
-            addLegalMovesInDirection(selectedChip, logicalX, logicalY, 1, 1); // Down-Right
-        }
-    }
-
-    /**
-     * Adds legal moves in a given direction.
-     *
-     * @param startX The starting logical X-coordinate.
-     * @param startY The starting logical Y-coordinate.
-     * @param deltaX The change in X-coordinate for each step.
-     * @param deltaY The change in Y-coordinate for each step.
-     */
-    private void addLegalMovesInDirection(Chip selectedChip, int startX, int startY, int deltaX, int deltaY) {
-        int x = startX + deltaX;
-        int y = startY + deltaY;
-        boolean isPowerChip = selectedChip.isPowerChip();
-        Cell lastValidCandidate = null;
-
-        while (isValidCell(x, y)) {
-            Cell candidate = cellArray[x][y];
-            if (candidate.isLegalMove(selectedChip)) {
-                if (isPowerChip) {
-                    legalMoves.add(candidate); // For power chips, add all valid candidates
-                } else {
-                    lastValidCandidate = candidate; // Store the last valid candidate for non-power chips
-                }
-            } else {
-                break; // Stop checking in this direction for non-power chips
-            }
-            x += deltaX;
-            y += deltaY;
+        if (highlightedChip != null && highlightedChip != selectedChip) {
+            highlightedChip.setSelected(false);
         }
+        selectedChip.setSelected(true);
+        highlightedChip = selectedChip;
 
-        if (!isPowerChip && lastValidCandidate != null) {
-            legalMoves.add(lastValidCandidate); // Add the last valid candidate for non-power chips
+        int count = board.generateMoves(selectedChip.getCurrentCell().getSquare(), moveBuffer, 0);
+        for (int i = 0; i < count; i++) {
+            int to = Moves.to(moveBuffer[i]);
+            legalMoves.add(cellArray[Board.x(to)][Board.y(to)]);
         }
     }
 
-
-    /**
-     * Checks if the given coordinates represent a valid cell on the game board.
-     *
-     * @param x The logical X-coordinate.
-     * @param y The logical Y-coordinate.
-     * @return True if the coordinates are valid, false otherwise.
-     */
-    private boolean isValidCell(int x, int y) {
-        return x >= 0 && x < NUM_COLS && y >= 0 && y < NUM_ROWS - 1;
-    }
-
     /**
      * Unselects the previously-selected chip.
      */
     private void unselectChips() {
-        for (Chip chip : chipArrayList) {
-            if (chip.isSelected()) {
-                chip.setSelected(false);
-                break; // Only unselect one chip if multiple are selected
-            }
+        if (highlightedChip != null) {
+            highlightedChip.setSelected(false);
+            highlightedChip = null;
         }
     }
 
@@ -793,18 +1041,37 @@ public class Gameview extends View {
     }
 
     public void resumeGame() {
-        if (animationHandler != null) {
-            animationHandler.resume();
+        // the names may have been changed in the preferences meanwhile
+        loadPlayerNames();
+        if (animationScheduler != null) {
+            animationScheduler.resume();
+        }
+        // a search cancelled by pauseGame() has to be restarted
+        if (initialized && currentPlayer == computerPlayer && !anyMovingChips() && !ai.isThinking()) {
+            makeAiMove();
+        } else if (initialized && !anyMovingChips()) {
+            startPondering();
         }
     }
 
     public void pauseGame() {
-        if (animationHandler != null) {
-            animationHandler.pause();
+        if (animationScheduler != null) {
+            animationScheduler.pause();
+        }
+        if (ai != null) {
+            ai.cancel();
         }
     }
 
-    private Chip getChipAt(Cell cel) {
-        return chipArrayList.stream().filter(ch -> ch.areYouHere(cel)).findFirst().get();
+    /**
+     * Stops the AI's background thread and frees the board layer and the chip atlas.
+     * Call when the game screen is destroyed.
+     */
+    public void shutdown() {
+        if (ai != null) {
+            ai.shutdown();
+        }
+        releaseBoardLayer();
+        Chip.releaseAtlas();
     }
 }
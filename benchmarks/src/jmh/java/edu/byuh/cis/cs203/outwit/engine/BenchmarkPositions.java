@@ -0,0 +1,87 @@
+package edu.byuh.cis.cs203.outwit.engine;
+
+import edu.byuh.cis.cs203.outwit.Team;
+
+/**
+ * The representative positions every benchmark runs on. They are rebuilt the same way
+ * on every run, so results from different runs can be compared.
+ */
+final class BenchmarkPositions {
+    /**
+     * Names accepted by {@link #get}, for use in {@code @Param}.
+     */
+    static final String OPENING = "opening";
+    static final String MIDGAME = "midgame";
+    static final String POWER = "power";
+    static final String ENDGAME = "endgame";
+
+    private static final int MIDGAME_PLIES = 16;
+    private static final int MIDGAME_DEPTH = 3;
+
+    private BenchmarkPositions() {
+    }
+
+    /**
+     * Builds one of the benchmark positions.
+     *
+     * @param name {@link #OPENING}, {@link #MIDGAME}, {@link #POWER} or {@link #ENDGAME}
+     * @return a new copy of the position, light to move
+     */
+    static Position get(String name) {
+        switch (name) {
+            case OPENING:
+                return Position.standardLayout("standard", Team.LIGHT);
+            case MIDGAME:
+                return midgame();
+            case POWER:
+                return Position.standardLayout("power", Team.LIGHT);
+            case ENDGAME:
+                return endgame();
+            default:
+                throw new IllegalArgumentException("unknown position: " + name);
+        }
+    }
+
+    /**
+     * Plays the standard opening forward with shallow fixed-depth searches, which are
+     * deterministic, so the same midgame comes out every time.
+     *
+     * @return the position after {@link #MIDGAME_PLIES} plies
+     */
+    private static Position midgame() {
+        Position position = Position.standardLayout("standard", Team.LIGHT);
+        AlphaBetaSearch search = new AlphaBetaSearch(new TranspositionTable(1));
+        search.setMaxDepth(MIDGAME_DEPTH);
+        for (int ply = 0; ply < MIDGAME_PLIES; ply++) {
+            position.makeMove(search.findBestMove(position, SearchEngine.NO_TIME_LIMIT_MS, Long.MAX_VALUE));
+        }
+        return position;
+    }
+
+    /**
+     * Builds a late endgame: each team has seven chips home (one of them the power chip)
+     * and two still on their way.
+     *
+     * @return the position
+     */
+    private static Position endgame() {
+        Position position = new Position();
+        int light = 0;
+        int dark = 0;
+        for (int square = 0; square < Board.SQUARES; square++) {
+            Team zone = Board.zone(square);
+            if (zone == Team.LIGHT && light < 7) {
+                position.put(square, Team.LIGHT, light == 0);
+                light++;
+            } else if (zone == Team.DARK && dark < 7) {
+                position.put(square, Team.DARK, dark == 0);
+                dark++;
+            }
+        }
+        position.put(Board.square(2, 5), Team.LIGHT, false);
+        position.put(Board.square(4, 8), Team.LIGHT, false);
+        position.put(Board.square(6, 4), Team.DARK, false);
+        position.put(Board.square(4, 1), Team.DARK, false);
+        return position;
+    }
+}
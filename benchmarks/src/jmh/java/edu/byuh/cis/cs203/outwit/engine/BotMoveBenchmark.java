@@ -0,0 +1,79 @@
+package edu.byuh.cis.cs203.outwit.engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Measures how long the bot takes to choose a move. The bot itself lives in the Android
+ * app, so this drives the same engines it creates (see {@code Bot.createEngine}), single
+ * threaded and with a fresh table, like the first move of a game. The bot searches for a
+ * fixed time; here the search is bounded by nodes (for Monte Carlo, by playouts) instead,
+ * so the latency shows how fast the engine is rather than how long it was allowed to think.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BotMoveBenchmark {
+    @Param({"alphabeta", "mcts"})
+    public String engine;
+
+    @Param({BenchmarkPositions.OPENING, BenchmarkPositions.MIDGAME,
+            BenchmarkPositions.POWER, BenchmarkPositions.ENDGAME})
+    public String position;
+
+    @Param({"100000"})
+    public long nodeBudget;
+
+    // a playout runs a whole game, so it costs far more than an alpha-beta node
+    @Param({"2000"})
+    public long playoutBudget;
+
+    private Position board;
+    private SearchEngine search;
+
+    /**
+     * Builds the position under test.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        board = BenchmarkPositions.get(position);
+    }
+
+    /**
+     * Creates a fresh engine for every move.
+     */
+    @Setup(Level.Invocation)
+    public void createEngine() {
+        search = engine.equals("mcts") ? new MctsSearch(1) : new ParallelSearch(1);
+    }
+
+    /**
+     * Releases the engine's threads.
+     */
+    @TearDown(Level.Invocation)
+    public void shutdownEngine() {
+        search.shutdown();
+    }
+
+    /**
+     * Chooses a move.
+     *
+     * @return the move
+     */
+    @Benchmark
+    public int chooseMove() {
+        long budget = search instanceof MctsSearch ? playoutBudget : nodeBudget;
+        return search.findBestMove(board, SearchEngine.NO_TIME_LIMIT_MS, budget, new AtomicBoolean());
+    }
+}
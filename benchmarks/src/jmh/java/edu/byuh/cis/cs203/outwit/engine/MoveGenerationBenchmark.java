@@ -0,0 +1,73 @@
+package edu.byuh.cis.cs203.outwit.engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the hot paths under the search: generating every legal move, playing each one
+ * forward and back, and evaluating a position.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MoveGenerationBenchmark {
+    @Param({BenchmarkPositions.OPENING, BenchmarkPositions.MIDGAME,
+            BenchmarkPositions.POWER, BenchmarkPositions.ENDGAME})
+    public String position;
+
+    private Position board;
+    private final int[] moves = new int[Position.MAX_MOVES];
+
+    /**
+     * Builds the position under test.
+     */
+    @Setup
+    public void setUp() {
+        board = BenchmarkPositions.get(position);
+    }
+
+    /**
+     * Generates every legal move of the position.
+     *
+     * @return the move count, so the work is not optimized away
+     */
+    @Benchmark
+    public int generateMoves() {
+        return board.generateMoves(moves);
+    }
+
+    /**
+     * Generates every legal move and plays each one forward and back.
+     *
+     * @return the hashes seen, so the work is not optimized away
+     */
+    @Benchmark
+    public long makeUnmake() {
+        int count = board.generateMoves(moves);
+        long hashes = 0;
+        for (int i = 0; i < count; i++) {
+            board.makeMove(moves[i]);
+            hashes ^= board.getHash();
+            board.unmakeMove(moves[i]);
+        }
+        return hashes;
+    }
+
+    /**
+     * Evaluates the position from the side to move's point of view.
+     *
+     * @return the score
+     */
+    @Benchmark
+    public int evaluate() {
+        return Evaluator.evaluate(board);
+    }
+}
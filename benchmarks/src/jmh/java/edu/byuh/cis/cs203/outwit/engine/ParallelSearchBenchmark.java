@@ -0,0 +1,86 @@
+package edu.byuh.cis.cs203.outwit.engine;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how {@link ParallelSearch} scales: the time each thread count needs to finish
+ * a fixed depth. The speedup is the one-thread time over the time at each thread count,
+ * and the nodes counter shows how much extra work the helper threads do for it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParallelSearchBenchmark {
+    @Param({BenchmarkPositions.OPENING, BenchmarkPositions.MIDGAME,
+            BenchmarkPositions.POWER, BenchmarkPositions.ENDGAME})
+    public String position;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Param({"8"})
+    public int depth;
+
+    private Position board;
+    private ParallelSearch search;
+
+    /**
+     * Counts the nodes searched by all threads; JMH reports the count per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Nodes {
+        public long nodes;
+    }
+
+    /**
+     * Builds the position and the search with its threads.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        board = BenchmarkPositions.get(position);
+        search = new ParallelSearch(threads);
+        search.setMaxDepth(depth);
+    }
+
+    /**
+     * Empties the shared table, so no search starts with a warm one.
+     */
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        search.getTable().clear();
+    }
+
+    /**
+     * Stops the search threads.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        search.shutdown();
+    }
+
+    /**
+     * Searches the position to the fixed depth with all the threads.
+     *
+     * @param counter receives the number of nodes searched
+     * @return the best move
+     */
+    @Benchmark
+    public int search(Nodes counter) {
+        int move = search.findBestMove(board, SearchEngine.NO_TIME_LIMIT_MS, Long.MAX_VALUE);
+        counter.nodes += search.getNodes();
+        return move;
+    }
+}
@@ -0,0 +1,47 @@
+package edu.byuh.cis.cs203.outwit.engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures move generator throughput with perft counts (see {@link Perft}); the counts
+ * themselves are checked by the core module's tests.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PerftBenchmark {
+    @Param({BenchmarkPositions.OPENING, BenchmarkPositions.POWER})
+    public String position;
+
+    @Param({"4"})
+    public int depth;
+
+    private Position board;
+
+    /**
+     * Builds the position under test.
+     */
+    @Setup
+    public void setUp() {
+        board = BenchmarkPositions.get(position);
+    }
+
+    /**
+     * Counts the leaf nodes to the fixed depth.
+     *
+     * @return the count
+     */
+    @Benchmark
+    public long perft() {
+        return Perft.count(board, depth);
+    }
+}
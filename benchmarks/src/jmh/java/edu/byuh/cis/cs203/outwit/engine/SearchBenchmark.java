@@ -0,0 +1,75 @@
+package edu.byuh.cis.cs203.outwit.engine;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures full alpha-beta searches to a fixed depth. Besides the searches per second,
+ * the nodes counter reports the search speed in nodes per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SearchBenchmark {
+    @Param({BenchmarkPositions.OPENING, BenchmarkPositions.MIDGAME,
+            BenchmarkPositions.POWER, BenchmarkPositions.ENDGAME})
+    public String position;
+
+    @Param({"6"})
+    public int depth;
+
+    private Position board;
+    private TranspositionTable table;
+    private AlphaBetaSearch search;
+
+    /**
+     * Counts the nodes searched; JMH reports the count per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Nodes {
+        public long nodes;
+    }
+
+    /**
+     * Builds the position and the search.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        board = BenchmarkPositions.get(position);
+        table = new TranspositionTable(TranspositionTable.DEFAULT_SIZE_MB);
+        search = new AlphaBetaSearch(table);
+        search.setMaxDepth(depth);
+    }
+
+    /**
+     * Empties the table, so every search starts cold like the first move of a game.
+     */
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        table.clear();
+    }
+
+    /**
+     * Searches the position to the fixed depth.
+     *
+     * @param counter receives the number of nodes searched
+     * @return the best move
+     */
+    @Benchmark
+    public int search(Nodes counter) {
+        int move = search.findBestMove(board, SearchEngine.NO_TIME_LIMIT_MS, Long.MAX_VALUE);
+        counter.nodes += search.getNodes();
+        return move;
+    }
+}
@@ -0,0 +1,13 @@
+plugins {
+    id("java-library")
+}
+
+java {
+    // the app still targets Java 8, so the engine must too
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+dependencies {
+    testImplementation("junit:junit:4.13.2")
+}
@@ -19,4 +19,20 @@ public enum Team {
      * Represents a team with dark-colored pieces.
      */
     DARK;
+
+    /**
+     * Gets the other playing team.
+     *
+     * @return DARK for LIGHT and LIGHT for DARK (NEUTRAL has no opponent and returns itself).
+     */
+    public Team opponent() {
+        switch (this) {
+            case LIGHT:
+                return DARK;
+            case DARK:
+                return LIGHT;
+            default:
+                return NEUTRAL;
+        }
+    }
 }
@@ -0,0 +1,409 @@
+package edu.byuh.cis.cs203.outwit.engine;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Negamax alpha-beta search with iterative deepening.
+ * The search stops as soon as its time or node budget is used up and returns the best
+ * move of the deepest iteration that finished. Results are kept in a transposition
+ * table, which survives between searches so later moves reuse earlier work.
+ */
+public class AlphaBetaSearch {
+    public static final int MAX_PLY = 64;
+
+    private static final int INFINITY = Evaluator.WIN + 1;
+    // scores beyond this are wins or losses, stored in the table relative to the node
+    private static final int WIN_THRESHOLD = Evaluator.WIN - 2 * MAX_PLY;
+    // how often (in nodes) the clock is read
+    private static final int CHECK_INTERVAL_MASK = 1023;
+
+    private final int[][] moveStack;
+    private final TranspositionTable table;
+    private final MoveOrdering ordering;
+    private Position position;
+    private long deadline;
+    private long nodeLimit;
+    private long nodes;
+    private long cutoffs;
+    private long firstMoveCutoffs;
+    private volatile AtomicBoolean cancelled = new AtomicBoolean();
+    private boolean stopped;
+    private int completedDepth;
+    private int bestScore;
+    private int bestMove;
+    private int maxDepth = MAX_PLY;
+    private int depthOffset;
+
+    /**
+     * Creates a search with its own move buffers and a default-sized transposition table.
+     */
+    public AlphaBetaSearch() {
+        this(new TranspositionTable(TranspositionTable.DEFAULT_SIZE_MB));
+    }
+
+    /**
+     * Creates a search that stores its results in the given table.
+     *
+     * @param table the transposition table to use
+     */
+    public AlphaBetaSearch(TranspositionTable table) {
+        this.table = table;
+        ordering = new MoveOrdering();
+        moveStack = new int[MAX_PLY + 1][Position.MAX_MOVES];
+    }
+
+    /**
+     * Limits how deep iterative deepening goes. Searches that reach this depth return
+     * without waiting for the time budget to run out.
+     *
+     * @param depth the deepest iteration to run, from 1 to {@link #MAX_PLY}
+     */
+    public void setMaxDepth(int depth) {
+        maxDepth = Math.max(1, Math.min(depth, MAX_PLY));
+    }
+
+    /**
+     * Makes iterative deepening skip its first iterations, so that this search is always
+     * the given number of plies ahead of one without an offset. Used by helper threads
+     * of a {@link ParallelSearch} so they do not all search the same tree.
+     *
+     * @param offset the number of plies to skip
+     */
+    void setDepthOffset(int offset) {
+        depthOffset = offset;
+    }
+
+    /**
+     * Searches a position and returns the best move found within the budget.
+     *
+     * @param root       the position to search; it is copied, not modified
+     * @param timeBudget maximum thinking time in milliseconds
+     * @param nodeBudget maximum number of nodes to visit
+     * @return the best move, or {@link Moves#NONE} if the side to move has no legal move
+     */
+    public int findBestMove(Position root, long timeBudget, long nodeBudget) {
+        return findBestMove(root, timeBudget, nodeBudget, new AtomicBoolean());
+    }
+
+    /**
+     * Searches a position until the budget runs out or the given flag is raised.
+     * Because the flag belongs to the caller, it can be raised before the search has
+     * even started (e.g. while the task is still queued) and the search will still stop.
+     *
+     * @param root       the position to search; it is copied, not modified
+     * @param timeBudget maximum thinking time in milliseconds
+     * @param nodeBudget maximum number of nodes to visit
+     * @param cancel     set to true from any thread to stop the search
+     * @return the best move, or {@link Moves#NONE} if the side to move has no legal move
+     */
+    public int findBestMove(Position root, long timeBudget, long nodeBudget, AtomicBoolean cancel) {
+        start(root, nodeBudget, cancel);
+        deadline = System.nanoTime() + timeBudget * 1000000L;
+
+        int[] rootMoves = moveStack[0];
+        int count = position.generateMoves(rootMoves);
+        if (count == 0) {
+            return Moves.NONE;
+        }
+        ordering.newSearch();
+        long rootEntry = table.probe(position.getHash());
+        int rootTableMove = rootEntry != 0 ? TranspositionTable.move(rootEntry) : Moves.NONE;
+        ordering.order(rootMoves, count, rootTableMove, 0, position.getSideToMove());
+        bestMove = rootMoves[0];
+        if (count == 1 || stopped) {
+            return bestMove;
+        }
+
+        for (int depth = 1 + Math.min(depthOffset, maxDepth - 1); depth <= maxDepth; depth++) {
+            int alpha = -INFINITY;
+            int iterationBest = Moves.NONE;
+            for (int i = 0; i < count; i++) {
+                int move = rootMoves[i];
+                position.makeMove(move);
+                int score = -negamax(depth - 1, -INFINITY, -alpha, 1);
+                position.unmakeMove(move);
+                if (stopped) {
+                    break;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    iterationBest = move;
+                }
+            }
+            if (stopped) {
+                break;
+            }
+            bestMove = iterationBest;
+            bestScore = alpha;
+            completedDepth = depth;
+            moveToFront(rootMoves, count, bestMove);
+            table.store(position.getHash(), depth, TranspositionTable.EXACT, bestScore, bestMove);
+            if (Math.abs(bestScore) > Evaluator.WIN - MAX_PLY) {
+                break; // the game is decided, searching deeper changes nothing
+            }
+        }
+        return bestMove;
+    }
+
+    /**
+     * Scores a position by searching it to a fixed depth. Unlike {@link #findBestMove},
+     * which returns at once when there is only one move to choose from, this always
+     * searches, so it also scores positions with a single legal move, a pass or a
+     * finished game.
+     *
+     * @param root  the position to score; it is copied, not modified
+     * @param depth the search depth in plies
+     * @return the score from the point of view of the side to move
+     */
+    public int score(Position root, int depth) {
+        start(root, Long.MAX_VALUE, new AtomicBoolean());
+        deadline = Long.MAX_VALUE;
+        ordering.newSearch();
+        for (int d = 1; d <= Math.max(1, Math.min(depth, MAX_PLY)); d++) {
+            bestScore = negamax(d, -INFINITY, INFINITY, 0);
+            completedDepth = d;
+            if (Math.abs(bestScore) > Evaluator.WIN - MAX_PLY) {
+                break; // the game is decided, searching deeper changes nothing
+            }
+        }
+        return bestScore;
+    }
+
+    /**
+     * Resets the counters and the result of the last search before a new one.
+     *
+     * @param root       the position to search
+     * @param nodeBudget maximum number of nodes to visit
+     * @param cancel     the flag that stops the search
+     */
+    private void start(Position root, long nodeBudget, AtomicBoolean cancel) {
+        cancelled = cancel;
+        nodeLimit = nodeBudget;
+        nodes = 0;
+        cutoffs = 0;
+        firstMoveCutoffs = 0;
+        stopped = cancel.get();
+        completedDepth = 0;
+        bestScore = 0;
+        bestMove = Moves.NONE;
+        position = new Position(root);
+    }
+
+    /**
+     * Asks a running search to stop as soon as possible.
+     */
+    public void stop() {
+        cancelled.set(true);
+    }
+
+    /**
+     * Gets the depth of the last iteration that finished.
+     *
+     * @return the completed depth in plies
+     */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * Gets the move chosen by the last search.
+     *
+     * @return the best move of the deepest completed iteration, or {@link Moves#NONE}
+     */
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    /**
+     * Gets the number of nodes visited by the last search.
+     *
+     * @return the node count
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Gets the number of beta cutoffs in the last search.
+     *
+     * @return the cutoff count
+     */
+    public long getCutoffs() {
+        return cutoffs;
+    }
+
+    /**
+     * Gets the number of beta cutoffs in the last search that were caused by the first
+     * move tried, which shows how well the moves were ordered.
+     *
+     * @return the first-move cutoff count
+     */
+    public long getFirstMoveCutoffs() {
+        return firstMoveCutoffs;
+    }
+
+    /**
+     * Gets the share of cutoffs caused by the first move tried.
+     *
+     * @return a value between 0 and 1 (0 if there were no cutoffs)
+     */
+    public double getFirstMoveCutoffRate() {
+        return cutoffs == 0 ? 0 : (double) firstMoveCutoffs / cutoffs;
+    }
+
+    /**
+     * Gets the score of the last completed iteration.
+     *
+     * @return the score from the point of view of the side that was to move at the root
+     */
+    public int getBestScore() {
+        return bestScore;
+    }
+
+    /**
+     * The recursive part of the search.
+     *
+     * @param depth remaining depth in plies
+     * @param alpha lower bound of the search window
+     * @param beta  upper bound of the search window
+     * @param ply   distance from the root
+     * @return the score of the position from the side to move's point of view
+     */
+    private int negamax(int depth, int alpha, int beta, int ply) {
+        if (((++nodes & CHECK_INTERVAL_MASK) == 0 && (System.nanoTime() >= deadline || cancelled.get()))
+                || nodes >= nodeLimit) {
+            stopped = true;
+        }
+        if (stopped) {
+            return 0;
+        }
+        if (position.isTerminal()) {
+            return -(Evaluator.WIN - ply); // the previous move finished the game
+        }
+
+        long hash = position.getHash();
+        long entry = table.probe(hash);
+        int tableMove = Moves.NONE;
+        if (entry != 0) {
+            tableMove = TranspositionTable.move(entry);
+            if (TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && score >= beta)
+                        || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+        if (depth == 0 || ply >= MAX_PLY) {
+            return Evaluator.evaluate(position);
+        }
+
+        int[] moves = moveStack[ply];
+        int count = position.generateMoves(moves);
+        if (count == 0) {
+            return pass(depth, alpha, beta, ply);
+        }
+        ordering.score(moves, count, tableMove, ply, position.getSideToMove());
+        int originalAlpha = alpha;
+        int bestMove = Moves.NONE;
+        for (int i = 0; i < count; i++) {
+            int move = ordering.pickNext(moves, count, i, ply);
+            position.makeMove(move);
+            int score = -negamax(depth - 1, -beta, -alpha, ply + 1);
+            position.unmakeMove(move);
+            if (stopped) {
+                return 0;
+            }
+            if (score > alpha) {
+                alpha = score;
+                bestMove = move;
+                if (alpha >= beta) {
+                    cutoffs++;
+                    if (i == 0) {
+                        firstMoveCutoffs++;
+                    }
+                    ordering.recordCutoff(move, depth, ply);
+                    break;
+                }
+            }
+        }
+        int bound = alpha >= beta ? TranspositionTable.LOWER
+                : alpha > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(hash, depth, bound, toTable(alpha, ply), bestMove);
+        return alpha;
+    }
+
+    /**
+     * Converts a win/loss score from "plies from the root" to "plies from this node"
+     * so the entry stays valid wherever the position is reached again.
+     *
+     * @param score the search score
+     * @param ply   distance from the root
+     * @return the score to store
+     */
+    private static int toTable(int score, int ply) {
+        if (score > WIN_THRESHOLD) {
+            return score + ply;
+        } else if (score < -WIN_THRESHOLD) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    /**
+     * Reverses {@link #toTable(int, int)} for an entry found at the given ply.
+     *
+     * @param score the stored score
+     * @param ply   distance from the root
+     * @return the search score
+     */
+    private static int fromTable(int score, int ply) {
+        if (score > WIN_THRESHOLD) {
+            return score - ply;
+        } else if (score < -WIN_THRESHOLD) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * Handles a position where the side to move is blocked in: the turn passes to the
+     * opponent, and if the opponent is blocked too the game can never finish.
+     *
+     * @param depth remaining depth in plies
+     * @param alpha lower bound of the search window
+     * @param beta  upper bound of the search window
+     * @param ply   distance from the root
+     * @return the score of the position from the side to move's point of view
+     */
+    private int pass(int depth, int alpha, int beta, int ply) {
+        position.makeMove(Moves.NONE);
+        int score;
+        if (position.generateMoves(moveStack[ply + 1]) == 0) {
+            score = 0;
+        } else {
+            score = -negamax(depth - 1, -beta, -alpha, ply + 1);
+        }
+        position.unmakeMove(Moves.NONE);
+        return score;
+    }
+
+    /**
+     * Moves one entry of a move list to the front, keeping the others in order.
+     *
+     * @param moves the move list
+     * @param count number of moves in the list
+     * @param move  the move to bring to the front
+     */
+    private static void moveToFront(int[] moves, int count, int move) {
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == move) {
+                System.arraycopy(moves, 0, moves, 1, i);
+                moves[0] = move;
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package edu.byuh.cis.cs203.outwit.engine;
+
+import edu.byuh.cis.cs203.outwit.Team;
+
+/**
+ * Helpers for 90-square bitboards.
+ * The playing area does not fit in one long, so every set of squares is kept as a pair:
+ * squares 0-63 live in the low word and squares 64-89 in the high word.
+ */
+public final class Bitboard {
+    public static final long BOARD_LO = mask(null, false);
+    public static final long BOARD_HI = mask(null, true);
+    public static final long NEUTRAL_LO = mask(Team.NEUTRAL, false);
+    public static final long NEUTRAL_HI = mask(Team.NEUTRAL, true);
+    public static final long LIGHT_HOME_LO = mask(Team.LIGHT, false);
+    public static final long LIGHT_HOME_HI = mask(Team.LIGHT, true);
+    public static final long DARK_HOME_LO = mask(Team.DARK, false);
+    public static final long DARK_HOME_HI = mask(Team.DARK, true);
+
+    private Bitboard() {
+    }
+
+    /**
+     * Builds the low or high word of a zone mask.
+     *
+     * @param zone the zone to collect, or null for every square on the board
+     * @param high true for the high word, false for the low word
+     * @return the requested word
+     */
+    private static long mask(Team zone, boolean high) {
+        long bits = 0;
+        for (int sq = 0; sq < Board.SQUARES; sq++) {
+            if (zone == null || Board.zone(sq) == zone) {
+                bits |= high ? hi(sq) : lo(sq);
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Gets the low word of a single-square set.
+     *
+     * @param square The square index.
+     * @return The low word with only that square set, or 0 if it lives in the high word.
+     */
+    public static long lo(int square) {
+        return square < 64 ? 1L << square : 0L;
+    }
+
+    /**
+     * Gets the high word of a single-square set.
+     *
+     * @param square The square index.
+     * @return The high word with only that square set, or 0 if it lives in the low word.
+     */
+    public static long hi(int square) {
+        return square < 64 ? 0L : 1L << (square - 64);
+    }
+
+    /**
+     * Checks whether a square is a member of a set.
+     *
+     * @param lo     The low word of the set.
+     * @param hi     The high word of the set.
+     * @param square The square index.
+     * @return True if the square is in the set.
+     */
+    public static boolean test(long lo, long hi, int square) {
+        return square < 64 ? (lo >>> square & 1L) != 0 : (hi >>> (square - 64) & 1L) != 0;
+    }
+
+    /**
+     * Counts the squares in a set.
+     *
+     * @param lo The low word of the set.
+     * @param hi The high word of the set.
+     * @return The number of squares in the set.
+     */
+    public static int count(long lo, long hi) {
+        return Long.bitCount(lo) + Long.bitCount(hi);
+    }
+
+    /**
+     * Gets the low word of a team's home corner.
+     *
+     * @param team LIGHT or DARK.
+     * @return The low word of the home mask.
+     */
+    public static long homeLo(Team team) {
+        return team == Team.LIGHT ? LIGHT_HOME_LO : DARK_HOME_LO;
+    }
+
+    /**
+     * Gets the high word of a team's home corner.
+     *
+     * @param team LIGHT or DARK.
+     * @return The high word of the home mask.
+     */
+    public static long homeHi(Team team) {
+        return team == Team.LIGHT ? LIGHT_HOME_HI : DARK_HOME_HI;
+    }
+}
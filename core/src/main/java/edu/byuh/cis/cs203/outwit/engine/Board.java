@@ -0,0 +1,86 @@
+package edu.byuh.cis.cs203.outwit.engine;
+
+import edu.byuh.cis.cs203.outwit.Team;
+
+/**
+ * Geometry of the 9x10 Outwit playing area.
+ * Squares are numbered row by row, so square = y * WIDTH + x.
+ */
+public final class Board {
+    public static final int WIDTH = 9;
+    public static final int HEIGHT = 10;
+    public static final int SQUARES = WIDTH * HEIGHT;
+
+    private Board() {
+    }
+
+    /**
+     * Converts logical cell coordinates into a square index.
+     *
+     * @param x The logical X-coordinate (0-8).
+     * @param y The logical Y-coordinate (0-9).
+     * @return The square index (0-89).
+     */
+    public static int square(int x, int y) {
+        return y * WIDTH + x;
+    }
+
+    /**
+     * Gets the logical X-coordinate of a square.
+     *
+     * @param square The square index.
+     * @return The logical X-coordinate.
+     */
+    public static int x(int square) {
+        return square % WIDTH;
+    }
+
+    /**
+     * Gets the logical Y-coordinate of a square.
+     *
+     * @param square The square index.
+     * @return The logical Y-coordinate.
+     */
+    public static int y(int square) {
+        return square / WIDTH;
+    }
+
+    /**
+     * Checks if the given coordinates lie inside the playing area.
+     *
+     * @param x The logical X-coordinate.
+     * @param y The logical Y-coordinate.
+     * @return True if the coordinates are on the board, false otherwise.
+     */
+    public static boolean onBoard(int x, int y) {
+        return x >= 0 && x < WIDTH && y >= 0 && y < HEIGHT;
+    }
+
+    /**
+     * Determine which team's home a cell belongs to.
+     * The light corner is the top-right 3x3, the dark corner the bottom-left 3x3.
+     *
+     * @param x The logical X-coordinate of the cell.
+     * @param y The logical Y-coordinate of the cell.
+     * @return LIGHT or DARK for home cells, NEUTRAL otherwise.
+     */
+    public static Team zone(int x, int y) {
+        if (x > 5 && y < 3) {
+            return Team.LIGHT;
+        } else if (x < 3 && y > 6) {
+            return Team.DARK;
+        } else {
+            return Team.NEUTRAL;
+        }
+    }
+
+    /**
+     * Determine which team's home a square belongs to.
+     *
+     * @param square The square index.
+     * @return LIGHT or DARK for home squares, NEUTRAL otherwise.
+     */
+    public static Team zone(int square) {
+        return zone(x(square), y(square));
+    }
+}
@@ -0,0 +1,460 @@
+package edu.byuh.cis.cs203.outwit.engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import edu.byuh.cis.cs203.outwit.Team;
+
+/**
+ * Perfect play for the end of the game, when each team has exactly one chip left outside
+ * its home corner. Built offline by {@link EndgameTablebaseGenerator}.
+ * <p>
+ * Every such position has an index, and the table holds one byte per index: the number
+ * of plies until the game ends with best play, odd if the side to move wins and even if
+ * it loses, or 0 if neither side can force a win. Because turning the board half a turn
+ * swaps the two teams' homes, only positions with light to move are stored; a position
+ * with dark to move is looked up as its rotated image.
+ * <p>
+ * The bytes are stored in blocks compressed with {@link java.util.zip.Deflater}, behind an
+ * index of block offsets, so a probe inflates at most one block. The last few blocks are
+ * kept inflated, which makes probing all the moves of one position cheap.
+ * <p>
+ * Each chipset has its own table, because which chips are power chips is part of the
+ * position: "normal" (no power chips), "power" (all power chips) or "standard" (one
+ * power chip per team).
+ * <p>
+ * Why only one chip each: a team with one chip out has 9 &times; 72 = 648 placements
+ * (empty home square, outside chip), so a table has 648&sup2; = 420K positions, or 34M with
+ * the standard chipset's 9 power chip choices. With two chips out a team has
+ * C(9,2) &times; C(72,2) = 92,016 placements (828,144 with a power chip). One chip against
+ * two, in both orientations, is then 2 &times; 648 &times; 92,016 = 119M positions for
+ * "normal" and "power": about 14 MB each at the compression these tables get (their
+ * one-chip tables are 49 KB and 92 KB), and an hour or more of single-core solving per
+ * table, where the one-chip tables take seconds. For "standard" it is 9.7 billion, and two
+ * against two is 92,016&sup2; = 8.5 billion even without power chips; both are past the
+ * int index and far past what an APK can carry.
+ */
+public final class EndgameTablebase {
+    /**
+     * "OWTB" in ASCII; the first four bytes of every tablebase file.
+     */
+    public static final int MAGIC = 0x4F575442;
+    public static final int VERSION = 1;
+
+    /**
+     * Returned by {@link #probe(Position)} for positions the table does not cover.
+     */
+    public static final int NOT_COVERED = -1;
+
+    static final int HOME_SQUARES = 9;
+    static final int NEUTRAL_SQUARES = Board.SQUARES - 2 * HOME_SQUARES;
+
+    private static final int[] LIGHT_HOME = squaresIn(Team.LIGHT);
+    private static final int[] DARK_HOME = squaresIn(Team.DARK);
+    private static final int[] NEUTRAL = squaresIn(Team.NEUTRAL);
+    private static final int[] HOME_INDEX = new int[Board.SQUARES];
+    private static final int[] NEUTRAL_INDEX = new int[Board.SQUARES];
+    private static final int CACHED_BLOCKS = 8;
+
+    static {
+        Arrays.fill(HOME_INDEX, -1);
+        Arrays.fill(NEUTRAL_INDEX, -1);
+        for (int i = 0; i < HOME_SQUARES; i++) {
+            HOME_INDEX[LIGHT_HOME[i]] = i;
+            HOME_INDEX[DARK_HOME[i]] = i;
+        }
+        for (int i = 0; i < NEUTRAL_SQUARES; i++) {
+            NEUTRAL_INDEX[NEUTRAL[i]] = i;
+        }
+    }
+
+    private final String chipset;
+    private final int powerChoices;
+    private final int size;
+    private final int blockSize;
+    private final int[] offsets;
+    private final ByteBuffer data;
+    private final Inflater inflater = new Inflater();
+    private final int[] cachedIndex = new int[CACHED_BLOCKS];
+    private final byte[][] cachedBytes;
+    private int nextCacheSlot;
+
+    /**
+     * Wraps a buffer that holds a tablebase file.
+     *
+     * @param buffer the whole file
+     * @throws IOException if the buffer does not hold a tablebase of this version
+     */
+    public EndgameTablebase(ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < 20 || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("not an endgame tablebase");
+        }
+        chipset = chipsetName(buffer.getInt(8));
+        powerChoices = powerChoices(chipset);
+        size = buffer.getInt(12);
+        blockSize = buffer.getInt(16);
+        if (size != tableSize(chipset) || blockSize <= 0) {
+            throw new IOException("endgame tablebase has the wrong size");
+        }
+        int blocks = (size + blockSize - 1) / blockSize;
+        offsets = new int[blocks + 1];
+        for (int i = 0; i <= blocks; i++) {
+            offsets[i] = buffer.getInt(20 + 4 * i);
+        }
+        int dataStart = 20 + 4 * (blocks + 1);
+        if (buffer.capacity() < dataStart + (long) offsets[blocks]) {
+            throw new IOException("endgame tablebase is truncated");
+        }
+        buffer.position(dataStart);
+        data = buffer.slice();
+        Arrays.fill(cachedIndex, -1);
+        cachedBytes = new byte[CACHED_BLOCKS][blockSize];
+    }
+
+    /**
+     * Memory-maps part of a file as a tablebase, e.g. an uncompressed asset inside an APK.
+     *
+     * @param channel an open channel of the file
+     * @param offset  where the tablebase starts in the file
+     * @param length  its length in bytes
+     * @return the tablebase; it stays usable after the channel is closed
+     * @throws IOException if the file cannot be mapped or is not a tablebase
+     */
+    public static EndgameTablebase map(FileChannel channel, long offset, long length) throws IOException {
+        return new EndgameTablebase(channel.map(FileChannel.MapMode.READ_ONLY, offset, length));
+    }
+
+    /**
+     * Memory-maps a tablebase file.
+     *
+     * @param file the tablebase file
+     * @return the tablebase
+     * @throws IOException if the file cannot be read or is not a tablebase
+     */
+    public static EndgameTablebase open(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            return map(raf.getChannel(), 0, raf.length());
+        }
+    }
+
+    /**
+     * Gets the chipset the table was built for.
+     *
+     * @return "normal", "power" or "standard"
+     */
+    public String getChipset() {
+        return chipset;
+    }
+
+    /**
+     * Looks a position up.
+     *
+     * @param position the position
+     * @return plies to the end of the game (odd: the side to move wins, even: it loses),
+     * 0 for a draw, or {@link #NOT_COVERED}
+     */
+    public synchronized int probe(Position position) {
+        int index = index(position, powerChoices, chipset);
+        return index < 0 ? NOT_COVERED : valueAt(index);
+    }
+
+    /**
+     * Picks the move that wins fastest, or else draws, or else loses slowest.
+     *
+     * @param position the position; it is restored before returning
+     * @return the best move, or {@link Moves#NONE} if the position is not covered or
+     * the side to move must pass
+     */
+    public synchronized int bestMove(Position position) {
+        if (index(position, powerChoices, chipset) < 0) {
+            return Moves.NONE;
+        }
+        int[] moves = new int[Position.MAX_MOVES];
+        int count = position.generateMoves(moves);
+        Team mover = position.getSideToMove();
+        int best = Moves.NONE;
+        int bestRank = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            position.makeMove(moves[i]);
+            int rank;
+            if (position.isTerminal()) {
+                rank = Integer.MAX_VALUE; // the last chip is home
+            } else {
+                int index = index(position, powerChoices, chipset);
+                rank = index < 0 ? Integer.MIN_VALUE + 1 : rank(valueAt(index));
+            }
+            position.unmakeMove(moves[i]);
+            if (rank > bestRank) {
+                bestRank = rank;
+                best = moves[i];
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Orders values of positions after our move, seen from the opponent's side: a
+     * quicker loss for the opponent is better for us, and a slower win for the opponent
+     * is better than a quick one.
+     *
+     * @param opponentValue the table value with the opponent to move
+     * @return a number that is larger for better moves
+     */
+    private static int rank(int opponentValue) {
+        if (opponentValue == 0) {
+            return 0;
+        } else if ((opponentValue & 1) == 0) {
+            return 1000 - opponentValue;
+        }
+        return -1000 + opponentValue;
+    }
+
+    /**
+     * Reads one table entry, inflating its block if it is not cached.
+     *
+     * @param index the position index
+     * @return the stored value
+     */
+    private int valueAt(int index) {
+        int block = index / blockSize;
+        for (int i = 0; i < CACHED_BLOCKS; i++) {
+            if (cachedIndex[i] == block) {
+                return cachedBytes[i][index % blockSize] & 0xFF;
+            }
+        }
+        int slot = nextCacheSlot;
+        nextCacheSlot = (nextCacheSlot + 1) % CACHED_BLOCKS;
+        byte[] compressed = new byte[offsets[block + 1] - offsets[block]];
+        ByteBuffer source = data.duplicate();
+        source.position(offsets[block]);
+        source.get(compressed);
+        inflater.reset();
+        inflater.setInput(compressed);
+        try {
+            inflater.inflate(cachedBytes[slot]);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("corrupt endgame tablebase block " + block, e);
+        }
+        cachedIndex[slot] = block;
+        return cachedBytes[slot][index % blockSize] & 0xFF;
+    }
+
+    /**
+     * Gets the number of positions in the table of a chipset.
+     *
+     * @param chipset "normal", "power" or "standard"
+     * @return the number of indexes
+     */
+    static int tableSize(String chipset) {
+        int side = HOME_SQUARES * NEUTRAL_SQUARES * powerChoices(chipset);
+        return side * side;
+    }
+
+    /**
+     * Gets how many ways the power chips of one team can be placed.
+     *
+     * @param chipset "normal", "power" or "standard"
+     * @return 9 for the standard chipset (any one chip), 1 otherwise
+     */
+    static int powerChoices(String chipset) {
+        return chipset.equals("standard") ? HOME_SQUARES : 1;
+    }
+
+    /**
+     * Gets the number stored for a chipset in the file header.
+     *
+     * @param chipset "normal", "power" or "standard"
+     * @return 0, 1 or 2
+     */
+    static int chipsetCode(String chipset) {
+        switch (chipset) {
+            case "normal":
+                return 0;
+            case "power":
+                return 1;
+            case "standard":
+                return 2;
+            default:
+                throw new IllegalArgumentException("unknown chipset " + chipset);
+        }
+    }
+
+    /**
+     * Reverses {@link #chipsetCode(String)}.
+     *
+     * @param code 0, 1 or 2
+     * @return the chipset name
+     * @throws IOException if the code is unknown
+     */
+    private static String chipsetName(int code) throws IOException {
+        switch (code) {
+            case 0:
+                return "normal";
+            case 1:
+                return "power";
+            case 2:
+                return "standard";
+            default:
+                throw new IOException("unknown chipset in endgame tablebase");
+        }
+    }
+
+    /**
+     * Computes a position's index. The side to move always takes light's role: with dark
+     * to move, every square is turned half a turn (square s becomes 89 - s).
+     *
+     * @param position     the position
+     * @param powerChoices the value of {@link #powerChoices(String)} for the chipset
+     * @param chipset      the chipset of the table
+     * @return the index, or -1 if the position is not covered by the table
+     */
+    static int index(Position position, int powerChoices, String chipset) {
+        Team mover = position.getSideToMove();
+        boolean rotate = mover == Team.DARK;
+        int moverConfig = config(position, mover, rotate, powerChoices, chipset);
+        if (moverConfig < 0) {
+            return -1;
+        }
+        int otherConfig = config(position, mover.opponent(), rotate, powerChoices, chipset);
+        if (otherConfig < 0) {
+            return -1;
+        }
+        return moverConfig * HOME_SQUARES * NEUTRAL_SQUARES * powerChoices + otherConfig;
+    }
+
+    /**
+     * Encodes one team's chips: which home square is empty, where the chip outside is,
+     * and (standard chipset) which chip is the power chip.
+     *
+     * @param position     the position
+     * @param team         the team whose chips are encoded
+     * @param rotate       true to turn the board half a turn first
+     * @param powerChoices the value of {@link #powerChoices(String)} for the chipset
+     * @param chipset      the chipset of the table
+     * @return the team's part of the index, or -1 if it is not covered
+     */
+    private static int config(Position position, Team team, boolean rotate, int powerChoices, String chipset) {
+        int homeMask = 0;
+        int outside = -1;
+        int powerSlot = -1;
+        int powerCount = 0;
+        long lo = position.chipsLo(team);
+        long hi = position.chipsHi(team);
+        int chips = Bitboard.count(lo, hi);
+        if (chips != Position.CHIPS_PER_TEAM) {
+            return -1;
+        }
+        for (int word = 0; word < 2; word++) {
+            long bits = word == 0 ? lo : hi;
+            while (bits != 0) {
+                int square = word * 64 + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                int framed = rotate ? Board.SQUARES - 1 - square : square;
+                boolean power = position.isPowerAt(square);
+                if (power) {
+                    powerCount++;
+                }
+                if (Board.zone(square) == team) {
+                    homeMask |= 1 << HOME_INDEX[framed];
+                    if (power) {
+                        powerSlot = HOME_INDEX[framed];
+                    }
+                } else if (outside < 0 && NEUTRAL_INDEX[framed] >= 0) {
+                    outside = NEUTRAL_INDEX[framed];
+                    if (power) {
+                        powerSlot = HOME_SQUARES; // placeholder for the empty home square
+                    }
+                } else {
+                    return -1; // more than one chip outside, or one in the wrong corner
+                }
+            }
+        }
+        if (outside < 0) {
+            return -1;
+        }
+        int empty = Integer.numberOfTrailingZeros(~homeMask);
+        int expectedPower = chipset.equals("power") ? Position.CHIPS_PER_TEAM
+                : chipset.equals("standard") ? 1 : 0;
+        if (powerCount != expectedPower) {
+            return -1;
+        }
+        int slot = 0;
+        if (powerChoices > 1) {
+            slot = powerSlot == HOME_SQUARES ? empty : powerSlot;
+        }
+        return (empty * NEUTRAL_SQUARES + outside) * powerChoices + slot;
+    }
+
+    /**
+     * Sets up the position with light to move that has the given index.
+     *
+     * @param index   the index
+     * @param chipset the chipset of the table
+     * @param into    an empty position to fill
+     * @return false (leaving the position empty) if both outside chips would share a square
+     */
+    static boolean decode(int index, String chipset, Position into) {
+        int powerChoices = powerChoices(chipset);
+        int sideConfigs = HOME_SQUARES * NEUTRAL_SQUARES * powerChoices;
+        int lightConfig = index / sideConfigs;
+        int darkConfig = index % sideConfigs;
+        if (outsideOf(lightConfig, powerChoices) == outsideOf(darkConfig, powerChoices)) {
+            return false;
+        }
+        place(into, Team.LIGHT, LIGHT_HOME, lightConfig, powerChoices, chipset);
+        place(into, Team.DARK, DARK_HOME, darkConfig, powerChoices, chipset);
+        return true;
+    }
+
+    private static int outsideOf(int config, int powerChoices) {
+        return config / powerChoices % NEUTRAL_SQUARES;
+    }
+
+    /**
+     * Puts one team's chips on the board from its part of the index.
+     *
+     * @param position     the position to fill
+     * @param team         the team
+     * @param home         the team's home squares, in index order
+     * @param config       the team's part of the index
+     * @param powerChoices the value of {@link #powerChoices(String)} for the chipset
+     * @param chipset      the chipset of the table
+     */
+    private static void place(Position position, Team team, int[] home, int config, int powerChoices,
+                              String chipset) {
+        int slot = config % powerChoices;
+        int outside = config / powerChoices % NEUTRAL_SQUARES;
+        int empty = config / powerChoices / NEUTRAL_SQUARES;
+        boolean allPower = chipset.equals("power");
+        boolean onePower = chipset.equals("standard");
+        for (int i = 0; i < HOME_SQUARES; i++) {
+            if (i != empty) {
+                position.put(home[i], team, allPower || (onePower && slot == i));
+            }
+        }
+        position.put(NEUTRAL[outside], team, allPower || (onePower && slot == empty));
+    }
+
+    /**
+     * Lists the squares of a zone in increasing order.
+     *
+     * @param zone LIGHT, DARK or NEUTRAL
+     * @return the square indexes
+     */
+    private static int[] squaresIn(Team zone) {
+        int[] squares = new int[Board.SQUARES];
+        int count = 0;
+        for (int square = 0; square < Board.SQUARES; square++) {
+            if (Board.zone(square) == zone) {
+                squares[count++] = square;
+            }
+        }
+        return Arrays.copyOf(squares, count);
+    }
+}
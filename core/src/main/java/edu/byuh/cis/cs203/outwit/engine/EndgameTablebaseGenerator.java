@@ -0,0 +1,230 @@
+package edu.byuh.cis.cs203.outwit.engine;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+import java.util.zip.Deflater;
+
+/**
+ * Solves every position of an {@link EndgameTablebase} and writes the table to a file.
+ * <p>
+ * The table is filled in rounds. Round n finds the positions that end in exactly n plies:
+ * in an odd round, those with a move to a position the opponent loses in n - 1 plies (or,
+ * in round 1, a move that brings the last chip home); in an even round, those where every
+ * move leads to a position the opponent wins, the slowest in n - 1 plies. A round only
+ * reads values from earlier rounds, so the positions can be solved in any order and in
+ * parallel. Positions still open after two rounds without progress are draws.
+ * <p>
+ * Usage: {@code EndgameTablebaseGenerator chipset output [threads]}
+ */
+public final class EndgameTablebaseGenerator {
+    private static final int BLOCK_SIZE = 1 << 16;
+    private static final int CHUNK_SIZE = 1 << 12;
+    private static final int MAX_VALUE = 255;
+
+    private final String chipset;
+    private final int powerChoices;
+    private final byte[] table;
+    private final ThreadLocal<Worker> workers = ThreadLocal.withInitial(Worker::new);
+
+    /**
+     * Creates a generator with an empty table.
+     *
+     * @param chipset "normal", "power" or "standard"
+     */
+    private EndgameTablebaseGenerator(String chipset) {
+        this.chipset = chipset;
+        powerChoices = EndgameTablebase.powerChoices(chipset);
+        table = new byte[EndgameTablebase.tableSize(chipset)];
+    }
+
+    /**
+     * Generates a table and writes it to a file.
+     *
+     * @param args the chipset, the output file and optionally the thread count
+     * @throws IOException          if the file cannot be written
+     * @throws InterruptedException if interrupted while waiting for a round
+     * @throws ExecutionException   if a round fails
+     */
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        if (args.length < 2) {
+            System.err.println("usage: EndgameTablebaseGenerator normal|power|standard output [threads]");
+            System.exit(2);
+        }
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        EndgameTablebaseGenerator generator = new EndgameTablebaseGenerator(args[0]);
+
+        long start = System.nanoTime();
+        int rounds = generator.solve(threads);
+        long solved = System.nanoTime();
+        long bytes = generator.write(args[1]);
+        long written = System.nanoTime();
+
+        long[] counts = generator.count();
+        System.out.printf("%s: %d positions (%d wins, %d losses, %d draws), longest %d plies%n",
+                args[0], generator.table.length, counts[0], counts[1], counts[2], rounds);
+        System.out.printf("solved in %.1f s on %d threads, compressed in %.1f s%n",
+                (solved - start) / 1e9, threads, (written - solved) / 1e9);
+        System.out.printf("%d bytes raw, %d bytes written (%.1f%%)%n",
+                generator.table.length, bytes, 100.0 * bytes / generator.table.length);
+    }
+
+    /**
+     * Runs rounds until two in a row solve nothing.
+     *
+     * @param threads the number of threads to solve with
+     * @return the longest win or loss found, in plies
+     * @throws InterruptedException if interrupted while waiting for a round
+     * @throws ExecutionException   if a round fails
+     */
+    private int solve(int threads) throws InterruptedException, ExecutionException {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        int chunks = (table.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        int longest = 0;
+        int idleRounds = 0;
+        for (int round = 1; round <= MAX_VALUE && idleRounds < 2; round++) {
+            final int n = round;
+            final LongAdder changed = new LongAdder();
+            pool.submit(() -> IntStream.range(0, chunks).parallel().forEach(chunk -> {
+                Worker worker = workers.get();
+                int end = Math.min(table.length, (chunk + 1) * CHUNK_SIZE);
+                for (int index = chunk * CHUNK_SIZE; index < end; index++) {
+                    if (table[index] == 0 && worker.solves(index, n)) {
+                        table[index] = (byte) n;
+                        changed.increment();
+                    }
+                }
+            })).get();
+            if (changed.sum() == 0) {
+                idleRounds++;
+            } else {
+                idleRounds = 0;
+                longest = n;
+            }
+        }
+        pool.shutdown();
+        return longest;
+    }
+
+    /**
+     * Counts the solved positions.
+     *
+     * @return the number of wins, losses and draws (including unused indexes)
+     */
+    private long[] count() {
+        long[] counts = new long[3];
+        for (byte value : table) {
+            int v = value & 0xFF;
+            counts[v == 0 ? 2 : (v & 1) == 1 ? 0 : 1]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Compresses the table block by block and writes it in the format read by
+     * {@link EndgameTablebase}.
+     *
+     * @param path the output file
+     * @return the number of bytes written
+     * @throws IOException if the file cannot be written
+     */
+    private long write(String path) throws IOException {
+        int blocks = (table.length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        List<byte[]> compressed = new ArrayList<>();
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        byte[] buffer = new byte[BLOCK_SIZE];
+        for (int block = 0; block < blocks; block++) {
+            int start = block * BLOCK_SIZE;
+            int length = Math.min(BLOCK_SIZE, table.length - start);
+            deflater.reset();
+            deflater.setInput(table, start, length);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            compressed.add(out.toByteArray());
+        }
+        deflater.end();
+
+        long bytes = 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path)))) {
+            out.writeInt(EndgameTablebase.MAGIC);
+            out.writeInt(EndgameTablebase.VERSION);
+            out.writeInt(EndgameTablebase.chipsetCode(chipset));
+            out.writeInt(table.length);
+            out.writeInt(BLOCK_SIZE);
+            int offset = 0;
+            for (byte[] block : compressed) {
+                out.writeInt(offset);
+                offset += block.length;
+            }
+            out.writeInt(offset);
+            for (byte[] block : compressed) {
+                out.write(block);
+            }
+            bytes = out.size();
+        }
+        return bytes;
+    }
+
+    /**
+     * The per-thread state of the generator.
+     */
+    private final class Worker {
+        private final Position empty = new Position();
+        private final Position position = new Position();
+        private final int[] moves = new int[Position.MAX_MOVES];
+
+        /**
+         * Checks whether a position ends in exactly the given number of plies.
+         *
+         * @param index the position's index
+         * @param n     the current round
+         * @return true if the position is a win (odd n) or loss (even n) in n plies
+         */
+        boolean solves(int index, int n) {
+            position.copyFrom(empty);
+            if (!EndgameTablebase.decode(index, chipset, position)) {
+                return false;
+            }
+            int count = position.generateMoves(moves);
+            if (count == 0) {
+                // blocked in: the only move is to pass
+                moves[0] = Moves.NONE;
+                count = 1;
+            }
+            boolean odd = (n & 1) == 1;
+            int slowestWin = 0;
+            for (int i = 0; i < count; i++) {
+                position.makeMove(moves[i]);
+                int value;
+                if (position.isTerminal()) {
+                    value = -1; // the last chip is home: the opponent has lost already
+                } else {
+                    value = table[EndgameTablebase.index(position, powerChoices, chipset)] & 0xFF;
+                }
+                position.unmakeMove(moves[i]);
+                if (odd) {
+                    if ((n == 1 && value == -1) || (value == n - 1 && value > 0)) {
+                        return true;
+                    }
+                } else {
+                    if (value == -1 || value == 0 || (value & 1) == 0 || value >= n) {
+                        return false; // some move does not lose by round n - 1
+                    }
+                    slowestWin = Math.max(slowestWin, value);
+                }
+            }
+            return !odd && slowestWin == n - 1;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package edu.byuh.cis.cs203.outwit.engine;
+
+import edu.byuh.cis.cs203.outwit.Team;
+
+/**
+ * Static evaluation of a position for the search.
+ * Every chip is scored by its manhattan distance to its team's home corner, and chips
+ * already in the corner earn a bonus. A power chip's distance counts half as much: it can
+ * stop on any square and move diagonally, so it gets home in fewer moves.
+ */
+final class Evaluator {
+    /**
+     * Score of a won game; wins found closer to the root score higher.
+     */
+    static final int WIN = 100000;
+
+    // weights in half steps, so a power chip's distance can count half
+    private static final int HOME_BONUS = 6;
+    private static final int DISTANCE_WEIGHT = 2;
+    private static final int POWER_DISTANCE_WEIGHT = 1;
+    private static final int[] LIGHT_DISTANCE = distances(Board.square(8, 0));
+    private static final int[] DARK_DISTANCE = distances(Board.square(0, 9));
+
+    private Evaluator() {
+    }
+
+    /**
+     * Builds the distance from every square to a corner.
+     *
+     * @param corner the corner square
+     * @return the manhattan distance indexed by square
+     */
+    private static int[] distances(int corner) {
+        int[] table = new int[Board.SQUARES];
+        for (int sq = 0; sq < Board.SQUARES; sq++) {
+            table[sq] = Math.abs(Board.x(sq) - Board.x(corner)) + Math.abs(Board.y(sq) - Board.y(corner));
+        }
+        return table;
+    }
+
+    /**
+     * Gets the manhattan distance from a square to a team's home corner.
+     *
+     * @param team   LIGHT or DARK
+     * @param square the square index
+     * @return the number of steps to the corner square
+     */
+    static int distance(Team team, int square) {
+        return team == Team.LIGHT ? LIGHT_DISTANCE[square] : DARK_DISTANCE[square];
+    }
+
+    /**
+     * Evaluates a position from the point of view of the side to move.
+     *
+     * @param position the position to evaluate
+     * @return a positive score if the side to move is ahead
+     */
+    static int evaluate(Position position) {
+        Team us = position.getSideToMove();
+        return score(position, us) - score(position, us.opponent());
+    }
+
+    /**
+     * Scores one team: fewer steps to the corner and more chips at home is better.
+     * The terms are kept up to date by the position, so this does not look at the chips.
+     *
+     * @param position the position to evaluate
+     * @param team     LIGHT or DARK
+     * @return the team's score
+     */
+    private static int score(Position position, Team team) {
+        int regularDistance = position.totalDistance(team) - position.powerDistance(team);
+        return HOME_BONUS * position.chipsInHome(team) - DISTANCE_WEIGHT * regularDistance
+                - POWER_DISTANCE_WEIGHT * position.powerDistance(team);
+    }
+}
@@ -0,0 +1,231 @@
+package edu.byuh.cis.cs203.outwit.engine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import edu.byuh.cis.cs203.outwit.Team;
+
+/**
+ * The bot's original move choice, before it searched, kept as a baseline to measure the
+ * engines against. It is a port of the first version of {@code Bot.getMove} to
+ * {@link Position}, quirks included: the first three moves are random, "must do" moves
+ * out of two light home squares take priority, the endgame rules only look at the light
+ * home, and otherwise the move that gets closest to the home corner wins, preferring
+ * regular chips still on neutral squares.
+ * <p>
+ * Like the original, it remembers how many moves it has made, so use one per game.
+ */
+public final class LegacyHeuristic implements SearchEngine {
+    private static final int LIGHT_CORNER = Board.square(8, 0);
+    private static final int DARK_CORNER = Board.square(0, 9);
+    private static final int RANDOM_TURNS = 4;
+
+    private final Random random;
+    private final int[] buffer = new int[Position.MAX_MOVES];
+    private int numTurns;
+
+    /**
+     * Creates the heuristic for a new game.
+     *
+     * @param random where its random moves come from
+     */
+    public LegacyHeuristic(Random random) {
+        this.random = random;
+    }
+
+    /**
+     * Chooses a move for the side to move. The budgets are ignored: the choice is instant.
+     *
+     * @param position   the position to move in
+     * @param timeBudget ignored
+     * @param nodeBudget ignored
+     * @param cancel     ignored
+     * @return the chosen move, or {@link Moves#NONE} if there is no legal move
+     */
+    @Override
+    public int findBestMove(Position position, long timeBudget, long nodeBudget, AtomicBoolean cancel) {
+        Team color = position.getSideToMove();
+        int corner = color == Team.DARK ? DARK_CORNER : LIGHT_CORNER;
+        numTurns++;
+        int count = position.generateMoves(buffer);
+        if (count == 0) {
+            return Moves.NONE;
+        }
+
+        List<int[]> candidates = new ArrayList<>(); // move, weight, distance
+        int mustDoMove = Moves.NONE;
+        for (int i = 0; i < count; i++) {
+            int move = buffer[i];
+            int from = Moves.from(move);
+            int to = Moves.to(move);
+            int weight = (Board.zone(from) == Team.NEUTRAL ? 2 : 0) + (position.isPowerAt(from) ? 0 : 1);
+            int distance = manhattan(to, corner);
+            // only consider moves that get closer to home
+            if (distance < manhattan(from, corner)) {
+                candidates.add(new int[]{move, weight, distance});
+            }
+            if (from == Board.square(6, 0) || from == Board.square(8, 2)) {
+                mustDoMove = move;
+            }
+        }
+
+        int mustDoMove2 = endgameMove(position, color);
+
+        if (numTurns < RANDOM_TURNS || candidates.isEmpty()) {
+            return randomMove(count);
+        } else if (mustDoMove != Moves.NONE) {
+            return mustDoMove;
+        } else if (mustDoMove2 != Moves.NONE) {
+            return mustDoMove2;
+        }
+        // heaviest first, then closest to the corner; the sort is stable, like the original's
+        Collections.sort(candidates, (a, b) -> a[1] != b[1] ? b[1] - a[1] : a[2] - b[2]);
+        return candidates.get(0)[0];
+    }
+
+    /**
+     * The original's endgame rules: once eight or more light home squares are taken, steer
+     * the last chip still outside home toward an empty light home square.
+     *
+     * @param position the position
+     * @param color    the team to move
+     * @return the endgame move, or {@link Moves#NONE} if the rules do not apply
+     */
+    private int endgameMove(Position position, Team color) {
+        int occupied = 0;
+        for (int x = 6; x < 9; x++) {
+            for (int y = 0; y < 3; y++) {
+                if (position.isOccupied(Board.square(x, y))) {
+                    occupied++;
+                }
+            }
+        }
+        if (occupied <= 7) {
+            return Moves.NONE;
+        }
+
+        // the moves of the chips not yet home, and the last of those chips
+        List<Integer> outsideMoves = new ArrayList<>();
+        int lastChip = -1;
+        int[] moves = new int[Position.MAX_MOVES];
+        for (int square = 0; square < Board.SQUARES; square++) {
+            if (position.teamAt(square) == color && Board.zone(square) != color) {
+                int count = position.generateMoves(square, moves, 0);
+                for (int i = 0; i < count; i++) {
+                    outsideMoves.add(moves[i]);
+                }
+                lastChip = square;
+            }
+        }
+        if (lastChip < 0) {
+            return Moves.NONE;
+        }
+        int chipX = Board.x(lastChip);
+        int chipY = Board.y(lastChip);
+
+        int result = Moves.NONE;
+        for (int x = 6; x < 9; x++) {
+            for (int y = 0; y < 3; y++) {
+                if (position.isOccupied(Board.square(x, y))) {
+                    continue;
+                }
+                final int emptyX = x;
+                final int emptyY = y;
+                if (emptyY == 2) {
+                    if (chipY < emptyY) {
+                        // prioritize going down
+                        result = last(outsideMoves, result, m -> Board.y(Moves.to(m)) > emptyY);
+                    } else {
+                        // prioritize going right
+                        result = last(outsideMoves, result, m -> Board.x(Moves.to(m)) >= emptyX);
+                    }
+                    if (chipX == emptyX) {
+                        result = last(outsideMoves, result,
+                                m -> Board.y(Moves.to(m)) > chipY && Board.x(Moves.to(m)) == chipX);
+                    }
+                } else {
+                    if (chipX > emptyX) {
+                        // prioritize going left
+                        result = last(outsideMoves, result, m -> Board.x(Moves.to(m)) < emptyX);
+                    } else {
+                        // prioritize going up
+                        result = last(outsideMoves, result, m -> Board.y(Moves.to(m)) <= emptyY);
+                    }
+                    if (chipY == emptyY) {
+                        result = last(outsideMoves, result,
+                                m -> Board.x(Moves.to(m)) > chipX && Board.y(Moves.to(m)) == chipY);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the last move in a list that passes a test.
+     *
+     * @param moves    the moves
+     * @param previous returned if no move passes
+     * @param test     the test
+     * @return the last move that passes, or previous
+     */
+    private static int last(List<Integer> moves, int previous, MoveTest test) {
+        int result = previous;
+        for (int move : moves) {
+            if (test.accepts(move)) {
+                result = move;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Picks a random move that ends on a neutral square, like the original's opening moves.
+     *
+     * @param count the number of moves in the buffer
+     * @return the move; any move if none ends on a neutral square
+     */
+    private int randomMove(int count) {
+        int neutral = 0;
+        for (int i = 0; i < count; i++) {
+            if (Board.zone(Moves.to(buffer[i])) == Team.NEUTRAL) {
+                buffer[neutral++] = buffer[i];
+            }
+        }
+        return neutral > 0 ? buffer[random.nextInt(neutral)] : buffer[random.nextInt(count)];
+    }
+
+    /**
+     * Gets the manhattan distance between two squares.
+     *
+     * @param a a square
+     * @param b another square
+     * @return the distance in steps
+     */
+    private static int manhattan(int a, int b) {
+        return Math.abs(Board.x(a) - Board.x(b)) + Math.abs(Board.y(a) - Board.y(b));
+    }
+
+    /**
+     * Nothing to release.
+     */
+    @Override
+    public void shutdown() {
+    }
+
+    /**
+     * A condition on a move.
+     */
+    private interface MoveTest {
+        /**
+         * Tests a move.
+         *
+         * @param move the packed move
+         * @return true if the move passes
+         */
+        boolean accepts(int move);
+    }
+}
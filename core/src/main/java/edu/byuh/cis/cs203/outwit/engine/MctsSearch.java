@@ -0,0 +1,517 @@
+package edu.byuh.cis.cs203.outwit.engine;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import edu.byuh.cis.cs203.outwit.Team;
+
+/**
+ * Monte Carlo tree search with UCT selection.
+ * <p>
+ * The tree lives in parallel arrays indexed by node number, so growing it allocates
+ * nothing. A node's children are stored next to each other; the node keeps the index of
+ * the first one. Each playout walks down the tree by UCT, adds one level of children,
+ * then finishes the game with a light playout: a random move, or the better of two random
+ * moves, until someone wins or {@link #MAX_PLAYOUT_PLIES} runs out, in which case the
+ * static evaluation decides.
+ * <p>
+ * All threads grow the same tree. A thread counts its visit on the way down, before the
+ * result is known (virtual loss), which steers the other threads toward other branches.
+ * Between searches the tree is kept, and a new search whose root is one or two plies
+ * below the old root (found by Zobrist hash) continues from that subtree.
+ */
+public class MctsSearch implements SearchEngine {
+    public static final int DEFAULT_CAPACITY = 1 << 18;
+
+    private static final int MAX_PLAYOUT_PLIES = 80;
+    private static final int MAX_TREE_DEPTH = 256;
+    // rewards are stored as fixed-point numbers with this many units per win
+    private static final int REWARD_SCALE = 1024;
+    private static final double EXPLORATION = 1.2;
+    // evaluation units that turn a playout cut off early into roughly a 73% win
+    private static final double EVALUATION_SCALE = 24.0;
+    private static final int CHECK_INTERVAL_MASK = 63;
+
+    private static final int UNEXPANDED = -1;
+    private static final int EXPANDING = -2;
+    private static final int TERMINAL = -3;
+
+    private final int capacity;
+    private final int[] moves;
+    private final long[] hashes;
+    private final int[] childCounts;
+    private final AtomicIntegerArray firstChild;
+    private final AtomicIntegerArray visits;
+    private final AtomicLongArray rewards;
+    private final AtomicInteger nodeCount = new AtomicInteger();
+    private final AtomicLong playouts = new AtomicLong();
+    private final Worker[] workers;
+    private final ExecutorService helpers;
+    private final Future<?>[] running;
+    private final Position rootPosition = new Position();
+    private int root;
+    private long elapsedNanos;
+
+    /**
+     * Creates a search with daemon helper threads and a default-sized tree.
+     *
+     * @param threads the total number of threads running playouts, including the caller's
+     */
+    public MctsSearch(int threads) {
+        this(threads, DEFAULT_CAPACITY, runnable -> {
+            Thread thread = new Thread(runnable, "outwit-mcts-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Creates a search.
+     *
+     * @param threads  the total number of threads running playouts, including the caller's
+     * @param capacity the largest number of tree nodes kept in memory
+     * @param factory  creates the helper threads
+     */
+    public MctsSearch(int threads, int capacity, ThreadFactory factory) {
+        this.capacity = capacity;
+        moves = new int[capacity];
+        hashes = new long[capacity];
+        childCounts = new int[capacity];
+        firstChild = new AtomicIntegerArray(capacity);
+        visits = new AtomicIntegerArray(capacity);
+        rewards = new AtomicLongArray(capacity);
+        workers = new Worker[Math.max(1, threads)];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Worker(0x9E3779B97F4A7C15L * (i + 1));
+        }
+        helpers = workers.length > 1 ? Executors.newFixedThreadPool(workers.length - 1, factory) : null;
+        running = new Future<?>[workers.length];
+        clear();
+    }
+
+    /**
+     * Throws away the whole tree.
+     */
+    public void clear() {
+        root = 0;
+        hashes[0] = 0;
+        resetNode(0);
+        nodeCount.set(1);
+    }
+
+    /**
+     * Searches a position until the budget runs out or the given flag is raised.
+     * Blocks until every helper has stopped.
+     *
+     * @param position   the position to search; it is copied, not modified
+     * @param timeBudget maximum thinking time in milliseconds
+     * @param nodeBudget maximum number of playouts, counted over all threads
+     * @param cancel     set to true from any thread to stop the search
+     * @return the most visited move, or {@link Moves#NONE} if the side to move has no legal move
+     */
+    @Override
+    public int findBestMove(Position position, long timeBudget, final long nodeBudget, AtomicBoolean cancel) {
+        long start = System.nanoTime();
+        final long deadline = start + timeBudget * 1000000L;
+        rootPosition.copyFrom(position);
+        reuseTree(position.getHash());
+        playouts.set(0);
+
+        final AtomicBoolean helpersStop = new AtomicBoolean();
+        for (int i = 1; i < workers.length; i++) {
+            final Worker helper = workers[i];
+            running[i] = helpers.submit(() -> {
+                while (!helpersStop.get() && playouts.get() < nodeBudget) {
+                    helper.iterate();
+                }
+            });
+        }
+        Worker main = workers[0];
+        for (long n = 0; playouts.get() < nodeBudget; n++) {
+            if ((n & CHECK_INTERVAL_MASK) == 0 && (System.nanoTime() >= deadline || cancel.get())) {
+                break;
+            }
+            main.iterate();
+        }
+        helpersStop.set(true);
+        for (int i = 1; i < workers.length; i++) {
+            awaitHelper(i);
+        }
+        elapsedNanos = System.nanoTime() - start;
+        return mostVisitedMove();
+    }
+
+    /**
+     * Gets the number of playouts run by all threads in the last search.
+     *
+     * @return the playout count
+     */
+    public long getPlayouts() {
+        return playouts.get();
+    }
+
+    /**
+     * Gets the speed of the last search, for sizing budgets on a given device.
+     *
+     * @return playouts per second over all threads
+     */
+    public double getPlayoutsPerSecond() {
+        return elapsedNanos == 0 ? 0 : playouts.get() * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Gets the number of tree nodes in use, including the parts kept from earlier searches.
+     *
+     * @return the node count
+     */
+    public int getTreeSize() {
+        return nodeCount.get();
+    }
+
+    /**
+     * Stops the helper threads for good.
+     */
+    @Override
+    public void shutdown() {
+        if (helpers != null) {
+            helpers.shutdownNow();
+        }
+    }
+
+    /**
+     * Moves the root to the node for the given position if it is a child or grandchild of
+     * the old root, and otherwise (or when the tree is more than half full) starts afresh.
+     *
+     * @param hash the Zobrist hash of the new root position
+     */
+    private void reuseTree(long hash) {
+        if (nodeCount.get() < capacity / 2) {
+            if (visits.get(root) > 0 && hashes[root] == hash) {
+                return;
+            }
+            int first = firstChild.get(root);
+            for (int c = first; first >= 0 && c < first + childCounts[root]; c++) {
+                if (hashes[c] == hash) {
+                    root = c;
+                    return;
+                }
+                int grandFirst = firstChild.get(c);
+                for (int g = grandFirst; grandFirst >= 0 && g < grandFirst + childCounts[c]; g++) {
+                    if (hashes[g] == hash) {
+                        root = g;
+                        return;
+                    }
+                }
+            }
+        }
+        clear();
+        hashes[0] = hash;
+    }
+
+    /**
+     * Picks the root child that was tried most often, which is more robust than picking
+     * the one with the best average.
+     *
+     * @return the chosen move, or {@link Moves#NONE}
+     */
+    private int mostVisitedMove() {
+        int first = firstChild.get(root);
+        if (first < 0) {
+            // not even the root was expanded; fall back to any legal move
+            int[] buffer = workers[0].buffer;
+            return rootPosition.generateMoves(buffer) > 0 ? buffer[0] : Moves.NONE;
+        }
+        int best = first;
+        for (int c = first + 1; c < first + childCounts[root]; c++) {
+            if (visits.get(c) > visits.get(best)) {
+                best = c;
+            }
+        }
+        return moves[best];
+    }
+
+    /**
+     * Claims a run of free nodes. The count never goes past the capacity, so a full tree
+     * can turn down any number of expansions.
+     *
+     * @param count the number of nodes wanted
+     * @return the index of the first node, or UNEXPANDED if there is not enough room
+     */
+    private int reserve(int count) {
+        while (true) {
+            int first = nodeCount.get();
+            if (first > capacity - count) {
+                return UNEXPANDED;
+            }
+            if (nodeCount.compareAndSet(first, first + count)) {
+                return first;
+            }
+        }
+    }
+
+    /**
+     * Marks a freshly allocated node as unvisited and unexpanded.
+     *
+     * @param node the node index
+     */
+    private void resetNode(int node) {
+        childCounts[node] = 0;
+        visits.set(node, 0);
+        rewards.set(node, 0);
+        firstChild.set(node, UNEXPANDED);
+    }
+
+    /**
+     * Waits for a helper to run out of work.
+     *
+     * @param index the helper's worker index
+     */
+    private void awaitHelper(int index) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                running[index].get();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true; // the helper stops after its current playout, keep waiting
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("playout helper failed", e.getCause());
+            }
+        }
+        running[index] = null;
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The per-thread state of the search: a scratch position, buffers and a random
+     * number generator, all reused from one playout to the next.
+     */
+    private final class Worker {
+        private final Position position = new Position();
+        private final int[] buffer = new int[Position.MAX_MOVES];
+        private final int[] path = new int[MAX_TREE_DEPTH + 1];
+        private final Team[] pathSides = new Team[MAX_TREE_DEPTH + 1];
+        private long seed;
+
+        /**
+         * Creates a worker.
+         *
+         * @param seed the starting state of its random number generator (not zero)
+         */
+        Worker(long seed) {
+            this.seed = seed;
+        }
+
+        /**
+         * Runs one selection, expansion, playout and backup.
+         */
+        void iterate() {
+            position.copyFrom(rootPosition);
+            int node = root;
+            int length = 0;
+            visits.incrementAndGet(node);
+            path[length] = node;
+            pathSides[length++] = position.getSideToMove();
+
+            double reward;
+            while (true) {
+                int first = firstChild.get(node);
+                if (first == TERMINAL) {
+                    reward = terminalReward();
+                    break;
+                }
+                if (first == UNEXPANDED && visits.get(node) > 1
+                        && firstChild.compareAndSet(node, UNEXPANDED, EXPANDING)) {
+                    first = expand(node);
+                }
+                if (first < 0 || length > MAX_TREE_DEPTH) {
+                    reward = first == TERMINAL ? terminalReward() : playout();
+                    break;
+                }
+                node = select(node, first);
+                visits.incrementAndGet(node); // virtual loss until the result is backed up
+                position.makeMove(moves[node]);
+                path[length] = node;
+                pathSides[length++] = position.getSideToMove();
+            }
+
+            // reward is for the side to move at the leaf; a node keeps the reward of the
+            // side that moved into it
+            Team leafSide = position.getSideToMove();
+            for (int i = 0; i < length; i++) {
+                double forMover = pathSides[i] == leafSide ? 1 - reward : reward;
+                rewards.addAndGet(path[i], (long) (forMover * REWARD_SCALE));
+            }
+            playouts.incrementAndGet();
+        }
+
+        /**
+         * Chooses the child with the best upper confidence bound. Children nobody has
+         * visited yet are tried first.
+         *
+         * @param node  the parent node
+         * @param first index of its first child
+         * @return the chosen child
+         */
+        private int select(int node, int first) {
+            double logParent = Math.log(Math.max(1, visits.get(node)));
+            int best = first;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int c = first; c < first + childCounts[node]; c++) {
+                int n = visits.get(c);
+                if (n == 0) {
+                    return c;
+                }
+                double value = (double) rewards.get(c) / (n * (double) REWARD_SCALE)
+                        + EXPLORATION * Math.sqrt(logParent / n);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = c;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Adds a node's children to the tree. The caller has already claimed the node by
+         * setting it to EXPANDING; other threads run playouts from it until it is published.
+         *
+         * @param node the node to expand; {@link #position} must be its position
+         * @return the index of the first child, TERMINAL, or UNEXPANDED if the tree is full
+         */
+        private int expand(int node) {
+            if (isDecided()) {
+                firstChild.set(node, TERMINAL);
+                return TERMINAL;
+            }
+            int count = position.generateMoves(buffer);
+            if (count == 0) {
+                position.makeMove(Moves.NONE);
+                boolean bothBlocked = position.generateMoves(buffer) == 0;
+                position.unmakeMove(Moves.NONE);
+                if (bothBlocked) {
+                    firstChild.set(node, TERMINAL);
+                    return TERMINAL;
+                }
+                buffer[0] = Moves.NONE;
+                count = 1;
+            }
+            int first = reserve(count);
+            if (first < 0) {
+                // out of room: this node stays a leaf and its playouts carry on
+                firstChild.set(node, UNEXPANDED);
+                return UNEXPANDED;
+            }
+            for (int i = 0; i < count; i++) {
+                int child = first + i;
+                moves[child] = buffer[i];
+                position.makeMove(buffer[i]);
+                hashes[child] = position.getHash();
+                position.unmakeMove(buffer[i]);
+                resetNode(child);
+            }
+            childCounts[node] = count;
+            firstChild.set(node, first); // publishes the children to the other threads
+            return first;
+        }
+
+        /**
+         * Checks whether the previous move finished the game or neither side can move.
+         *
+         * @return true if the game is over
+         */
+        private boolean isDecided() {
+            return position.isTerminal();
+        }
+
+        /**
+         * Scores a finished game for the side to move: the previous move either won it,
+         * or both sides are blocked and it is a draw.
+         *
+         * @return 0 for a loss, 0.5 for a draw
+         */
+        private double terminalReward() {
+            return isDecided() ? 0 : 0.5;
+        }
+
+        /**
+         * Plays the game out with light random moves and scores the result.
+         *
+         * @return the reward for the side to move at the start of the playout
+         */
+        private double playout() {
+            Team startSide = position.getSideToMove();
+            int passes = 0;
+            for (int ply = 0; ply < MAX_PLAYOUT_PLIES; ply++) {
+                Team side = position.getSideToMove();
+                if (position.isTerminal()) {
+                    return side == startSide ? 0 : 1; // the previous move won
+                }
+                int count = position.generateMoves(buffer);
+                if (count == 0) {
+                    if (++passes == 2) {
+                        return 0.5;
+                    }
+                    position.makeMove(Moves.NONE);
+                    continue;
+                }
+                passes = 0;
+                position.makeMove(choose(side, count));
+            }
+            double score = Evaluator.evaluate(position) / EVALUATION_SCALE;
+            double reward = 1 / (1 + Math.exp(-score));
+            return position.getSideToMove() == startSide ? reward : 1 - reward;
+        }
+
+        /**
+         * Picks a playout move: half the time a uniformly random one, otherwise the one of
+         * two random candidates that brings its chip closer to home.
+         *
+         * @param side  the side to move
+         * @param count the number of moves in {@link #buffer}
+         * @return the chosen move
+         */
+        private int choose(Team side, int count) {
+            long random = nextRandom();
+            int a = buffer[(int) ((random >>> 1) % count)];
+            if ((random & 1) == 0) {
+                return a;
+            }
+            int b = buffer[(int) ((random >>> 33) % count)];
+            return progress(side, b) > progress(side, a) ? b : a;
+        }
+
+        /**
+         * Measures how much closer a move brings its chip to the home corner.
+         *
+         * @param side the side making the move
+         * @param move the packed move
+         * @return the number of steps gained (negative if the chip moves away)
+         */
+        private int progress(Team side, int move) {
+            return Evaluator.distance(side, Moves.from(move)) - Evaluator.distance(side, Moves.to(move));
+        }
+
+        /**
+         * Advances the worker's xorshift generator.
+         *
+         * @return 64 random bits
+         */
+        private long nextRandom() {
+            seed ^= seed << 13;
+            seed ^= seed >>> 7;
+            seed ^= seed << 17;
+            return seed & Long.MAX_VALUE;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package edu.byuh.cis.cs203.outwit.engine;
+
+import edu.byuh.cis.cs203.outwit.Team;
+
+/**
+ * Orders moves so that the ones most likely to cause a cutoff are searched first:
+ * the transposition table move, then the two killer moves of the ply, then the rest by
+ * their history score. Getting closer to the home corner only breaks ties.
+ */
+final class MoveOrdering {
+    private static final int TABLE_MOVE_SCORE = 1 << 30;
+    private static final int KILLER_SCORE = 1 << 29;
+    // history scores are halved once any of them passes this limit
+    private static final int HISTORY_LIMIT = 1 << 20;
+    // room below the history score for the distance tiebreak
+    private static final int TIEBREAK_BITS = 5;
+    private static final int TIEBREAK_MAX = (1 << TIEBREAK_BITS) - 1;
+
+    private final int[][] killers;
+    private final int[] history;
+    private final int[][] scores;
+
+    /**
+     * Creates empty killer and history tables.
+     */
+    MoveOrdering() {
+        killers = new int[AlphaBetaSearch.MAX_PLY + 1][2];
+        history = new int[Board.SQUARES * Board.SQUARES];
+        scores = new int[AlphaBetaSearch.MAX_PLY + 1][Position.MAX_MOVES];
+    }
+
+    /**
+     * Prepares the tables for a new search: killers are forgotten and history is aged.
+     */
+    void newSearch() {
+        for (int[] pair : killers) {
+            pair[0] = Moves.NONE;
+            pair[1] = Moves.NONE;
+        }
+        for (int i = 0; i < history.length; i++) {
+            history[i] >>= 1;
+        }
+    }
+
+    /**
+     * Scores a move list so that {@link #pickNext} can hand out the best candidates first.
+     * Nothing is sorted yet: a node that is cut off by its first move never pays for
+     * ordering the rest.
+     *
+     * @param moves     the generated moves
+     * @param count     the number of moves
+     * @param tableMove the best move stored in the transposition table, or {@link Moves#NONE}
+     * @param ply       distance from the root
+     * @param side      the team making the moves
+     */
+    void score(int[] moves, int count, int tableMove, int ply, Team side) {
+        int[] score = scores[ply];
+        int killer0 = killers[ply][0];
+        int killer1 = killers[ply][1];
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            if (move == tableMove) {
+                score[i] = TABLE_MOVE_SCORE;
+            } else if (move == killer0) {
+                score[i] = KILLER_SCORE + 1;
+            } else if (move == killer1) {
+                score[i] = KILLER_SCORE;
+            } else {
+                int tiebreak = TIEBREAK_MAX - Evaluator.distance(side, Moves.to(move));
+                score[i] = (history[index(move)] << TIEBREAK_BITS) + tiebreak;
+            }
+        }
+    }
+
+    /**
+     * Selects the best move not yet tried: swaps the highest-scored move of
+     * moves[index..count) into moves[index] and returns it.
+     *
+     * @param moves the moves scored by {@link #score}
+     * @param count the number of moves
+     * @param index how many moves have been handed out already
+     * @param ply   distance from the root (the same as passed to {@link #score})
+     * @return the move now at moves[index]
+     */
+    int pickNext(int[] moves, int count, int index, int ply) {
+        int[] score = scores[ply];
+        int best = index;
+        for (int i = index + 1; i < count; i++) {
+            if (score[i] > score[best]) {
+                best = i;
+            }
+        }
+        int move = moves[best];
+        if (best != index) {
+            moves[best] = moves[index];
+            moves[index] = move;
+            int bestScore = score[best];
+            score[best] = score[index];
+            score[index] = bestScore;
+        }
+        return move;
+    }
+
+    /**
+     * Sorts a whole move list, best candidates first. Used at the root, whose moves are
+     * all searched on every iteration anyway.
+     *
+     * @param moves     the moves to sort
+     * @param count     the number of moves
+     * @param tableMove the best move stored in the transposition table, or {@link Moves#NONE}
+     * @param ply       distance from the root
+     * @param side      the team making the moves
+     */
+    void order(int[] moves, int count, int tableMove, int ply, Team side) {
+        score(moves, count, tableMove, ply, side);
+        for (int i = 0; i < count - 1; i++) {
+            pickNext(moves, count, i, ply);
+        }
+    }
+
+    /**
+     * Rewards a move that caused a beta cutoff.
+     *
+     * @param move  the move that refuted the opponent's play
+     * @param depth the remaining depth at which it happened
+     * @param ply   distance from the root
+     */
+    void recordCutoff(int move, int depth, int ply) {
+        int[] pair = killers[ply];
+        if (pair[0] != move) {
+            pair[1] = pair[0];
+            pair[0] = move;
+        }
+        int index = index(move);
+        history[index] += depth * depth;
+        if (history[index] > HISTORY_LIMIT) {
+            for (int i = 0; i < history.length; i++) {
+                history[i] >>= 1;
+            }
+        }
+    }
+
+    /**
+     * Maps a move to its slot in the from/to history table.
+     *
+     * @param move the packed move
+     * @return the table index
+     */
+    private static int index(int move) {
+        return Moves.from(move) * Board.SQUARES + Moves.to(move);
+    }
+}
@@ -0,0 +1,100 @@
+package edu.byuh.cis.cs203.outwit.engine;
+
+/**
+ * Moves are packed into a single int so they can be generated into plain arrays.
+ * Bits 0-6 hold the source square, bits 7-13 the destination square, and the bits
+ * above them flags that describe the move.
+ */
+public final class Moves {
+    /**
+     * A value that is never a legal move (source and destination are the same square).
+     */
+    public static final int NONE = 0;
+
+    /**
+     * Flag: the move brings a chip from a neutral square into its home corner.
+     */
+    public static final int ENTERS_HOME = 1 << 14;
+
+    /**
+     * Flag: the moving chip is a power chip.
+     */
+    public static final int POWER = 1 << 15;
+
+    /**
+     * Number of bits a packed move uses, flags included.
+     */
+    public static final int BITS = 16;
+
+    private static final int SQUARE_BITS = 7;
+    private static final int SQUARE_MASK = (1 << SQUARE_BITS) - 1;
+
+    private Moves() {
+    }
+
+    /**
+     * Packs a move.
+     *
+     * @param from The source square.
+     * @param to   The destination square.
+     * @return The packed move.
+     */
+    public static int encode(int from, int to) {
+        return from | (to << SQUARE_BITS);
+    }
+
+    /**
+     * Packs a move with flags.
+     *
+     * @param from  The source square.
+     * @param to    The destination square.
+     * @param flags {@link #ENTERS_HOME} and/or {@link #POWER}, or 0.
+     * @return The packed move.
+     */
+    public static int encode(int from, int to, int flags) {
+        return from | (to << SQUARE_BITS) | flags;
+    }
+
+    /**
+     * Checks a flag of a packed move.
+     *
+     * @param move The packed move.
+     * @param flag {@link #ENTERS_HOME} or {@link #POWER}.
+     * @return true if the flag is set.
+     */
+    public static boolean has(int move, int flag) {
+        return (move & flag) != 0;
+    }
+
+    /**
+     * Gets the source square of a packed move.
+     *
+     * @param move The packed move.
+     * @return The source square.
+     */
+    public static int from(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    /**
+     * Gets the destination square of a packed move.
+     *
+     * @param move The packed move.
+     * @return The destination square.
+     */
+    public static int to(int move) {
+        return (move >>> SQUARE_BITS) & SQUARE_MASK;
+    }
+
+    /**
+     * Formats a move as "x,y-x,y" for logging.
+     *
+     * @param move The packed move.
+     * @return A human-readable form of the move.
+     */
+    public static String toString(int move) {
+        int from = from(move);
+        int to = to(move);
+        return Board.x(from) + "," + Board.y(from) + "-" + Board.x(to) + "," + Board.y(to);
+    }
+}
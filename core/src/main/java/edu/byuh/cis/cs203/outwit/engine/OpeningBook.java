@@ -0,0 +1,174 @@
+package edu.byuh.cis.cs203.outwit.engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Random;
+
+/**
+ * A read-only opening book: the moves to play in positions near the start of the game,
+ * worked out in advance by {@link OpeningBookGenerator}.
+ * <p>
+ * The file is a header followed by fixed-size records of (Zobrist key, move, weight),
+ * sorted by key. A position may have several records, one per good move, and a move's
+ * weight says how often it should be chosen. The file is memory-mapped and searched
+ * in place, so opening the book costs no heap and no parsing.
+ */
+public final class OpeningBook {
+    /**
+     * "OWBK" in ASCII; the first four bytes of every book file.
+     */
+    public static final int MAGIC = 0x4F57424B;
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 12;
+
+    /**
+     * Size of one record: an 8-byte key, a 2-byte move and a 2-byte weight.
+     */
+    public static final int RECORD_BYTES = 12;
+
+    private final ByteBuffer buffer;
+    private final int size;
+
+    /**
+     * Wraps a buffer that holds a book file.
+     *
+     * @param buffer the whole book, header included
+     * @throws IOException if the buffer does not hold a book of this version
+     */
+    public OpeningBook(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("not an opening book");
+        }
+        size = buffer.getInt(8);
+        if (buffer.capacity() < HEADER_BYTES + (long) size * RECORD_BYTES) {
+            throw new IOException("opening book is truncated");
+        }
+    }
+
+    /**
+     * Memory-maps part of a file as a book. On Android this is how an uncompressed asset
+     * is opened, since it sits inside the APK at an offset.
+     *
+     * @param channel an open channel of the file
+     * @param offset  where the book starts in the file
+     * @param length  the book's length in bytes
+     * @return the book; it stays usable after the channel is closed
+     * @throws IOException if the file cannot be mapped or is not a book
+     */
+    public static OpeningBook map(FileChannel channel, long offset, long length) throws IOException {
+        return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, offset, length));
+    }
+
+    /**
+     * Memory-maps a book file.
+     *
+     * @param file the book file
+     * @return the book
+     * @throws IOException if the file cannot be read or is not a book
+     */
+    public static OpeningBook open(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            return map(raf.getChannel(), 0, raf.length());
+        }
+    }
+
+    /**
+     * Gets the number of records in the book.
+     *
+     * @return the record count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the book has a move for a position.
+     *
+     * @param key the position's Zobrist hash
+     * @return true if there is at least one record for the key
+     */
+    public boolean contains(long key) {
+        int index = firstIndex(key);
+        return index < size && key(index) == key;
+    }
+
+    /**
+     * Picks one of the book moves for a position, each with a chance in proportion to
+     * its weight.
+     *
+     * @param key    the position's Zobrist hash
+     * @param random where the choice comes from
+     * @return the packed move, or {@link Moves#NONE} if the position is not in the book
+     */
+    public int pickMove(long key, Random random) {
+        int first = firstIndex(key);
+        int total = 0;
+        for (int i = first; i < size && key(i) == key; i++) {
+            total += weight(i);
+        }
+        if (total == 0) {
+            return Moves.NONE;
+        }
+        int ticket = random.nextInt(total);
+        for (int i = first; ; i++) {
+            ticket -= weight(i);
+            if (ticket < 0) {
+                return move(i);
+            }
+        }
+    }
+
+    /**
+     * Gets the heaviest book move for a position.
+     *
+     * @param key the position's Zobrist hash
+     * @return the packed move, or {@link Moves#NONE} if the position is not in the book
+     */
+    public int bestMove(long key) {
+        int best = Moves.NONE;
+        int bestWeight = -1;
+        for (int i = firstIndex(key); i < size && key(i) == key; i++) {
+            if (weight(i) > bestWeight) {
+                bestWeight = weight(i);
+                best = move(i);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Binary search for the first record whose key is not less than the given one.
+     *
+     * @param key the Zobrist hash to look for
+     * @return a record index, or {@link #size()} if every key is smaller
+     */
+    private int firstIndex(long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (key(middle) < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long key(int index) {
+        return buffer.getLong(HEADER_BYTES + index * RECORD_BYTES);
+    }
+
+    private int move(int index) {
+        return buffer.getShort(HEADER_BYTES + index * RECORD_BYTES + 8) & 0xFFFF;
+    }
+
+    private int weight(int index) {
+        return buffer.getShort(HEADER_BYTES + index * RECORD_BYTES + 10) & 0xFFFF;
+    }
+}
@@ -0,0 +1,209 @@
+package edu.byuh.cis.cs203.outwit.engine;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import edu.byuh.cis.cs203.outwit.Team;
+
+/**
+ * Builds the opening book offline by deep search.
+ * <p>
+ * Starting from the standard layout of every chipset, with either team moving first,
+ * each book position is expanded like this: a quick search ranks all moves, the best
+ * few candidates are searched again to the full depth, and every candidate within
+ * {@link #MARGIN} of the best is recorded, weighted by how close it came. The strongest
+ * replies are then expanded in turn, until the book is the requested number of plies deep.
+ * The start positions are generated in parallel.
+ * <p>
+ * Usage: {@code OpeningBookGenerator output [plies] [depth] [width] [threads]}
+ */
+public final class OpeningBookGenerator {
+    private static final String[] CHIPSETS = {"standard", "power", "normal"};
+    private static final int DEFAULT_PLIES = 4;
+    private static final int DEFAULT_DEPTH = 8;
+    private static final int DEFAULT_WIDTH = 3;
+    private static final int RANKING_DEPTH = 3;
+    private static final int CANDIDATES = 8;
+    private static final int MAX_BOOK_MOVES = 4;
+    // evaluation units a move may lose against the best one and still be played
+    private static final int MARGIN = 4;
+
+    private final int depth;
+    private final int width;
+    private final AlphaBetaSearch search = new AlphaBetaSearch();
+    private final Set<Long> visited = new HashSet<>();
+    private final List<long[]> records = new ArrayList<>();
+
+    /**
+     * Creates a generator for one start position.
+     *
+     * @param depth the search depth of the book moves
+     * @param width how many replies of each position are expanded further
+     */
+    private OpeningBookGenerator(int depth, int width) {
+        this.depth = depth;
+        this.width = width;
+    }
+
+    /**
+     * Generates the book and writes it to a file.
+     *
+     * @param args the output file, then optionally plies, depth, width and thread count
+     * @throws IOException          if the file cannot be written
+     * @throws InterruptedException if interrupted while waiting for the searches
+     * @throws ExecutionException   if a search fails
+     */
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        if (args.length < 1) {
+            System.err.println("usage: OpeningBookGenerator output [plies] [depth] [width] [threads]");
+            System.exit(2);
+        }
+        final int plies = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PLIES;
+        final int depth = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_DEPTH;
+        final int width = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_WIDTH;
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<List<long[]>>> tasks = new ArrayList<>();
+        for (String chipset : CHIPSETS) {
+            for (Team first : new Team[]{Team.LIGHT, Team.DARK}) {
+                final Position start = Position.standardLayout(chipset, first);
+                tasks.add(pool.submit(() -> {
+                    OpeningBookGenerator generator = new OpeningBookGenerator(depth, width);
+                    generator.expand(start, plies);
+                    return generator.records;
+                }));
+            }
+        }
+
+        // the same position can be reached from several starts; keep one set of moves for it
+        List<long[]> book = new ArrayList<>();
+        Set<Long> keys = new HashSet<>();
+        for (Future<List<long[]>> task : tasks) {
+            Set<Long> taskKeys = new HashSet<>();
+            for (long[] record : task.get()) {
+                if (!keys.contains(record[0])) {
+                    taskKeys.add(record[0]);
+                    book.add(record);
+                }
+            }
+            keys.addAll(taskKeys);
+        }
+        pool.shutdown();
+
+        book.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(b[2], a[2]));
+        write(book, args[0]);
+        System.out.println(keys.size() + " positions, " + book.size() + " moves written to " + args[0]);
+    }
+
+    /**
+     * Records the book moves of a position and expands its best replies.
+     *
+     * @param position   the position; restored before returning
+     * @param pliesLeft  how many more plies the book should cover
+     */
+    private void expand(Position position, int pliesLeft) {
+        if (pliesLeft == 0 || !visited.add(position.getHash())) {
+            return;
+        }
+        int[] moves = new int[Position.MAX_MOVES];
+        int count = position.generateMoves(moves);
+        if (count == 0) {
+            return;
+        }
+
+        // rank every move with a quick search, then search the best few properly
+        int[] scores = new int[count];
+        score(position, moves, scores, count, RANKING_DEPTH);
+        sortByScore(moves, scores, count);
+        int candidates = Math.min(count, CANDIDATES);
+        score(position, moves, scores, candidates, depth - 1);
+        sortByScore(moves, scores, candidates);
+
+        for (int i = 0; i < Math.min(candidates, MAX_BOOK_MOVES); i++) {
+            int loss = scores[0] - scores[i];
+            if (loss > MARGIN) {
+                break;
+            }
+            records.add(new long[]{position.getHash(), moves[i], MARGIN + 1 - loss});
+        }
+        for (int i = 0; i < Math.min(candidates, width); i++) {
+            position.makeMove(moves[i]);
+            expand(position, pliesLeft - 1);
+            position.unmakeMove(moves[i]);
+        }
+    }
+
+    /**
+     * Scores moves by searching the position after each of them.
+     *
+     * @param position the position the moves are played from
+     * @param moves    the moves
+     * @param scores   receives each move's score for the side that plays it
+     * @param count    how many moves to score
+     * @param plies    the search depth of the positions after the moves
+     */
+    private void score(Position position, int[] moves, int[] scores, int count, int plies) {
+        for (int i = 0; i < count; i++) {
+            position.makeMove(moves[i]);
+            scores[i] = -search.score(position, plies);
+            position.unmakeMove(moves[i]);
+        }
+    }
+
+    /**
+     * Sorts moves from best to worst score, keeping the scores alongside.
+     *
+     * @param moves  the moves
+     * @param scores their scores
+     * @param count  how many to sort
+     */
+    private static void sortByScore(int[] moves, int[] scores, int count) {
+        long[] packed = new long[count];
+        for (int i = 0; i < count; i++) {
+            // descending score, ties keep the earlier move first
+            packed[i] = ((long) -scores[i] << 32) | i;
+        }
+        Arrays.sort(packed);
+        int[] sortedMoves = new int[count];
+        int[] sortedScores = new int[count];
+        for (int i = 0; i < count; i++) {
+            int index = (int) packed[i];
+            sortedMoves[i] = moves[index];
+            sortedScores[i] = scores[index];
+        }
+        System.arraycopy(sortedMoves, 0, moves, 0, count);
+        System.arraycopy(sortedScores, 0, scores, 0, count);
+    }
+
+    /**
+     * Writes a sorted list of records in the format read by {@link OpeningBook}.
+     *
+     * @param book the records: key, move, weight
+     * @param path the output file
+     * @throws IOException if the file cannot be written
+     */
+    private static void write(List<long[]> book, String path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path)))) {
+            out.writeInt(OpeningBook.MAGIC);
+            out.writeInt(OpeningBook.VERSION);
+            out.writeInt(book.size());
+            for (long[] record : book) {
+                out.writeLong(record[0]);
+                out.writeShort((int) record[1]);
+                out.writeShort((int) record[2]);
+            }
+        }
+    }
+}
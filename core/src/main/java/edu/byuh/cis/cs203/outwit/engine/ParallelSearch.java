@@ -0,0 +1,198 @@
+package edu.byuh.cis.cs203.outwit.engine;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Lazy SMP: several {@link AlphaBetaSearch} workers search the same root at once and
+ * share one transposition table. They do not talk to each other otherwise; a helper
+ * that finishes a subtree first simply leaves the result in the table for the others.
+ * Odd-numbered helpers run one ply ahead of the main search so the threads spread out
+ * over different parts of the tree.
+ * <p>
+ * The calling thread runs the main search and decides when to stop. When it returns,
+ * the helpers are stopped and the move of the deepest completed iteration is reported.
+ */
+public class ParallelSearch implements SearchEngine {
+    private final TranspositionTable table;
+    private final AlphaBetaSearch[] workers;
+    private final ExecutorService helpers;
+    private final Future<?>[] running;
+
+    /**
+     * Creates a parallel search with daemon helper threads and a default-sized table.
+     *
+     * @param threads the total number of searching threads, including the caller's
+     */
+    public ParallelSearch(int threads) {
+        this(threads, new TranspositionTable(TranspositionTable.DEFAULT_SIZE_MB), runnable -> {
+            Thread thread = new Thread(runnable, "outwit-search-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Creates a parallel search.
+     *
+     * @param threads the total number of searching threads, including the caller's
+     * @param table   the transposition table shared by all threads
+     * @param factory creates the helper threads
+     */
+    public ParallelSearch(int threads, TranspositionTable table, ThreadFactory factory) {
+        this.table = table;
+        workers = new AlphaBetaSearch[Math.max(1, threads)];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new AlphaBetaSearch(table);
+            workers[i].setDepthOffset(i & 1);
+        }
+        helpers = workers.length > 1 ? Executors.newFixedThreadPool(workers.length - 1, factory) : null;
+        running = new Future<?>[workers.length];
+    }
+
+    /**
+     * Gets the number of threads that take part in a search.
+     *
+     * @return the thread count, including the caller's
+     */
+    public int getThreadCount() {
+        return workers.length;
+    }
+
+    /**
+     * Gets the table shared by all threads.
+     *
+     * @return the transposition table
+     */
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    /**
+     * Limits how deep every thread's iterative deepening goes.
+     *
+     * @param depth the deepest iteration to run, from 1 to {@link AlphaBetaSearch#MAX_PLY}
+     */
+    public void setMaxDepth(int depth) {
+        for (AlphaBetaSearch worker : workers) {
+            worker.setMaxDepth(depth);
+        }
+    }
+
+    /**
+     * Searches a position and returns the best move found within the budget.
+     *
+     * @param root       the position to search; it is copied, not modified
+     * @param timeBudget maximum thinking time in milliseconds
+     * @param nodeBudget maximum number of nodes the main thread may visit
+     * @return the best move, or {@link Moves#NONE} if the side to move has no legal move
+     */
+    public int findBestMove(Position root, long timeBudget, long nodeBudget) {
+        return findBestMove(root, timeBudget, nodeBudget, new AtomicBoolean());
+    }
+
+    /**
+     * Searches a position on all threads until the budget runs out or the given flag is
+     * raised. Blocks until every helper has stopped.
+     *
+     * @param root       the position to search; it is copied, not modified
+     * @param timeBudget maximum thinking time in milliseconds
+     * @param nodeBudget maximum number of nodes the main thread may visit
+     * @param cancel     set to true from any thread to stop the search
+     * @return the best move, or {@link Moves#NONE} if the side to move has no legal move
+     */
+    @Override
+    public int findBestMove(final Position root, final long timeBudget, long nodeBudget, AtomicBoolean cancel) {
+        final AtomicBoolean helpersStop = new AtomicBoolean();
+        for (int i = 1; i < workers.length; i++) {
+            final AlphaBetaSearch helper = workers[i];
+            running[i] = helpers.submit(() -> {
+                helper.findBestMove(root, timeBudget, Long.MAX_VALUE, helpersStop);
+            });
+        }
+        int move = workers[0].findBestMove(root, timeBudget, nodeBudget, cancel);
+        helpersStop.set(true);
+        int deepest = workers[0].getCompletedDepth();
+        for (int i = 1; i < workers.length; i++) {
+            awaitHelper(i);
+            // a helper that got further than the main thread has the better answer
+            if (workers[i].getCompletedDepth() > deepest) {
+                deepest = workers[i].getCompletedDepth();
+                move = workers[i].getBestMove();
+            }
+        }
+        return move;
+    }
+
+    /**
+     * Waits for a helper to return from its search.
+     *
+     * @param index the helper's worker index
+     */
+    private void awaitHelper(int index) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                running[index].get();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true; // the helper stops within a few microseconds, keep waiting
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("search helper failed", e.getCause());
+            }
+        }
+        running[index] = null;
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Gets the deepest iteration any thread completed in the last search.
+     *
+     * @return the completed depth in plies
+     */
+    public int getCompletedDepth() {
+        int depth = 0;
+        for (AlphaBetaSearch worker : workers) {
+            depth = Math.max(depth, worker.getCompletedDepth());
+        }
+        return depth;
+    }
+
+    /**
+     * Gets the number of nodes visited by all threads in the last search.
+     *
+     * @return the total node count
+     */
+    public long getNodes() {
+        long nodes = 0;
+        for (AlphaBetaSearch worker : workers) {
+            nodes += worker.getNodes();
+        }
+        return nodes;
+    }
+
+    /**
+     * Gets the score the main thread found in the last search.
+     *
+     * @return the score from the point of view of the side that was to move at the root
+     */
+    public int getBestScore() {
+        return workers[0].getBestScore();
+    }
+
+    /**
+     * Stops the helper threads for good.
+     */
+    @Override
+    public void shutdown() {
+        if (helpers != null) {
+            helpers.shutdownNow();
+        }
+    }
+}
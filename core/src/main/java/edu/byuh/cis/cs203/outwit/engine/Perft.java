@@ -0,0 +1,233 @@
+package edu.byuh.cis.cs203.outwit.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import edu.byuh.cis.cs203.outwit.Team;
+
+/**
+ * Counts the leaf nodes of the game tree to a fixed depth ("perft"). The counts depend on
+ * nothing but the move generator, so comparing them with known-good values (or with a
+ * plain reference generator) proves an optimized generator still follows the rules, and
+ * timing them measures its speed.
+ * <p>
+ * A side that is blocked in passes, which counts as one move, as in the search. A game
+ * that is over has no moves.
+ * <p>
+ * Usage: {@code Perft depth [standard|power|normal] [random seed] [threads]}, which prints
+ * the count below every root move (the "divide"), the total and the speed.
+ */
+public final class Perft {
+    private final int[][] moveStack;
+    private final Position position;
+
+    /**
+     * Creates a counter for positions below a given root.
+     *
+     * @param root     the position to count from; it is copied, not modified
+     * @param maxDepth the deepest count this counter is used for
+     */
+    private Perft(Position root, int maxDepth) {
+        position = new Position(root);
+        moveStack = new int[Math.max(1, maxDepth)][Position.MAX_MOVES];
+    }
+
+    /**
+     * Counts the leaf nodes below a position on the calling thread.
+     *
+     * @param root  the position; it is not modified
+     * @param depth the number of plies to play out
+     * @return the number of leaf nodes
+     */
+    public static long count(Position root, int depth) {
+        return new Perft(root, depth).count(depth);
+    }
+
+    /**
+     * Counts the leaf nodes below every root move, one fork/join task per move.
+     *
+     * @param root  the position; it is not modified
+     * @param depth the number of plies to play out, root move included (at least 1)
+     * @param pool  the pool the root moves are counted on
+     * @return the count below each root move
+     */
+    public static Divide divide(Position root, final int depth, ForkJoinPool pool) {
+        int[] moves = rootMoves(root);
+        List<RecursiveTask<Long>> tasks = new ArrayList<>();
+        for (final int move : moves) {
+            final Position child = new Position(root);
+            child.makeMove(move);
+            tasks.add(new RecursiveTask<Long>() {
+                @Override
+                protected Long compute() {
+                    return count(child, depth - 1);
+                }
+            });
+        }
+        for (RecursiveTask<Long> task : tasks) {
+            pool.execute(task);
+        }
+        long[] counts = new long[moves.length];
+        for (int i = 0; i < moves.length; i++) {
+            counts[i] = tasks.get(i).join();
+        }
+        return new Divide(moves, counts);
+    }
+
+    /**
+     * Lists the moves of a position the way the count sees them.
+     *
+     * @param position the position
+     * @return the legal moves, a single pass if the side to move is blocked in, or none if
+     * the game is over
+     */
+    private static int[] rootMoves(Position position) {
+        if (position.isTerminal()) {
+            return new int[0];
+        }
+        int[] buffer = new int[Position.MAX_MOVES];
+        int count = position.generateMoves(buffer);
+        if (count == 0) {
+            return new int[]{Moves.NONE};
+        }
+        int[] moves = new int[count];
+        System.arraycopy(buffer, 0, moves, 0, count);
+        return moves;
+    }
+
+    /**
+     * Counts the leaf nodes below the current position.
+     *
+     * @param depth the number of plies left
+     * @return the number of leaf nodes
+     */
+    private long count(int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        if (position.isTerminal()) {
+            return 0;
+        }
+        int[] moves = moveStack[depth - 1];
+        int count = position.generateMoves(moves);
+        if (count == 0) {
+            moves[0] = Moves.NONE; // blocked in: the only move is to pass
+            count = 1;
+        }
+        if (depth == 1) {
+            return count; // every move is a leaf; no need to play them
+        }
+        long leaves = 0;
+        for (int i = 0; i < count; i++) {
+            position.makeMove(moves[i]);
+            leaves += count(depth - 1);
+            position.unmakeMove(moves[i]);
+        }
+        return leaves;
+    }
+
+    /**
+     * The result of {@link #divide}: every root move with the leaf count below it.
+     */
+    public static final class Divide {
+        private final int[] moves;
+        private final long[] counts;
+
+        /**
+         * Creates a result.
+         *
+         * @param moves  the root moves
+         * @param counts the leaf count below each of them
+         */
+        Divide(int[] moves, long[] counts) {
+            this.moves = moves;
+            this.counts = counts;
+        }
+
+        /**
+         * Gets the number of root moves.
+         *
+         * @return the move count
+         */
+        public int size() {
+            return moves.length;
+        }
+
+        /**
+         * Gets one of the root moves.
+         *
+         * @param i the move's index
+         * @return the packed move
+         */
+        public int move(int i) {
+            return moves[i];
+        }
+
+        /**
+         * Gets the leaf count below one of the root moves.
+         *
+         * @param i the move's index
+         * @return the count
+         */
+        public long count(int i) {
+            return counts[i];
+        }
+
+        /**
+         * Gets the leaf count below the root.
+         *
+         * @return the sum of all the counts
+         */
+        public long total() {
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Runs a count and prints the divide.
+     *
+     * @param args the depth, then optionally the chipset, "random" and a seed, and the
+     *             thread count
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("usage: Perft depth [standard|power|normal] [random seed] [threads]");
+            System.exit(2);
+        }
+        int depth = Integer.parseInt(args[0]);
+        String chipset = args.length > 1 ? args[1] : "standard";
+        int next = 2;
+        Position root;
+        if (args.length > next + 1 && args[next].equals("random")) {
+            long seed = Long.parseLong(args[next + 1]);
+            root = Position.randomLayout(chipset, Team.LIGHT, new Random(seed));
+            next += 2;
+        } else {
+            root = Position.standardLayout(chipset, Team.LIGHT);
+        }
+        int threads = args.length > next ? Integer.parseInt(args[next]) : Runtime.getRuntime().availableProcessors();
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        Divide divide = divide(root, Math.max(1, depth), pool);
+        long nanos = System.nanoTime() - start;
+        pool.shutdown();
+
+        for (int i = 0; i < divide.size(); i++) {
+            String move = divide.move(i) == Moves.NONE ? "pass" : Moves.toString(divide.move(i));
+            System.out.println(move + ": " + divide.count(i));
+        }
+        System.out.println();
+        System.out.println("total " + divide.total());
+        System.out.println(String.format(Locale.US, "%.3f s on %d threads, %.1f M leaves/s",
+                nanos / 1e9, threads, divide.total() / (nanos / 1e3)));
+    }
+}
@@ -0,0 +1,462 @@
+package edu.byuh.cis.cs203.outwit.engine;
+
+import java.util.Random;
+
+import edu.byuh.cis.cs203.outwit.Team;
+
+/**
+ * A compact game position backed by bitboards.
+ * Each set of squares is a pair of longs (see {@link Bitboard}).
+ * <p>
+ * Alongside the chips, the position keeps the terms the evaluation is made of: per team,
+ * the sum of the chips' distances to the home corner, the distances of the power chips
+ * alone, and the number of chips at home. Every move and undo updates them by the one
+ * chip that moved, so evaluating a position costs the same however many chips are left.
+ */
+public final class Position {
+    /**
+     * Upper bound on the number of moves a side can have in one position.
+     */
+    public static final int MAX_MOVES = 320;
+
+    /**
+     * Number of chips each team plays with (and the size of each home corner).
+     */
+    public static final int CHIPS_PER_TEAM = 9;
+
+    private long lightLo;
+    private long lightHi;
+    private long darkLo;
+    private long darkHi;
+    private long powerLo;
+    private long powerHi;
+    private Team sideToMove;
+    private long hash;
+    private int lightDistance;
+    private int darkDistance;
+    private int lightPowerDistance;
+    private int darkPowerDistance;
+    private int lightHome;
+    private int darkHome;
+
+    /**
+     * Creates an empty position with light to move.
+     */
+    public Position() {
+        sideToMove = Team.LIGHT;
+    }
+
+    /**
+     * Creates a copy of another position.
+     *
+     * @param other the position to copy
+     */
+    public Position(Position other) {
+        copyFrom(other);
+    }
+
+    /**
+     * Builds the standard starting layout: the chips stand on the long diagonal, each dark
+     * chip with a light chip just below it.
+     *
+     * @param chipset    "standard" (one power chip per team, in the middle), "power" (all
+     *                   power chips) or "normal" (no power chips), as in the chipset setting
+     * @param sideToMove the team that moves first
+     * @return the starting position
+     */
+    public static Position standardLayout(String chipset, Team sideToMove) {
+        Position position = new Position();
+        for (int i = 0; i < Board.WIDTH; i++) {
+            boolean power = chipset.equals("power") || (chipset.equals("standard") && i == 4);
+            position.put(Board.square(i, i), Team.DARK, power);
+            position.put(Board.square(i, i + 1), Team.LIGHT, power);
+        }
+        position.setSideToMove(sideToMove);
+        return position;
+    }
+
+    /**
+     * Builds the random starting layout: each chip on a random neutral square, placed the
+     * same way the game does it (which never uses the last column or the last row).
+     *
+     * @param chipset    "standard", "power" or "normal", as in {@link #standardLayout}
+     * @param sideToMove the team that moves first
+     * @param random     where the squares come from; the same seed gives the same layout
+     * @return the starting position
+     */
+    public static Position randomLayout(String chipset, Team sideToMove, Random random) {
+        Position position = new Position();
+        for (int i = 0; i < Board.WIDTH; i++) {
+            boolean power = chipset.equals("power") || (chipset.equals("standard") && i == 4);
+            position.put(randomNeutralSquare(position, random), Team.DARK, power);
+            position.put(randomNeutralSquare(position, random), Team.LIGHT, power);
+        }
+        position.setSideToMove(sideToMove);
+        return position;
+    }
+
+    /**
+     * Picks an empty neutral square for {@link #randomLayout}.
+     *
+     * @param position the chips placed so far
+     * @param random   where the square comes from
+     * @return the square index
+     */
+    private static int randomNeutralSquare(Position position, Random random) {
+        int square;
+        do {
+            square = Board.square(random.nextInt(Board.WIDTH - 1), random.nextInt(Board.HEIGHT - 1));
+        } while (position.isOccupied(square) || Board.zone(square) != Team.NEUTRAL);
+        return square;
+    }
+
+    /**
+     * Overwrites this position with another one, without allocating.
+     *
+     * @param other the position to copy
+     */
+    public void copyFrom(Position other) {
+        lightLo = other.lightLo;
+        lightHi = other.lightHi;
+        darkLo = other.darkLo;
+        darkHi = other.darkHi;
+        powerLo = other.powerLo;
+        powerHi = other.powerHi;
+        sideToMove = other.sideToMove;
+        hash = other.hash;
+        lightDistance = other.lightDistance;
+        darkDistance = other.darkDistance;
+        lightPowerDistance = other.lightPowerDistance;
+        darkPowerDistance = other.darkPowerDistance;
+        lightHome = other.lightHome;
+        darkHome = other.darkHome;
+    }
+
+    /**
+     * Places a chip on an empty square.
+     *
+     * @param square the square index
+     * @param team   the chip's team (LIGHT or DARK)
+     * @param power  true if the chip is a power chip
+     */
+    public void put(int square, Team team, boolean power) {
+        long lo = Bitboard.lo(square);
+        long hi = Bitboard.hi(square);
+        if (team == Team.LIGHT) {
+            lightLo |= lo;
+            lightHi |= hi;
+        } else {
+            darkLo |= lo;
+            darkHi |= hi;
+        }
+        if (power) {
+            powerLo |= lo;
+            powerHi |= hi;
+        }
+        hash ^= Zobrist.chip(Zobrist.kind(team, power), square);
+        updateTerms(team, power, Evaluator.distance(team, square), Board.zone(square) == team ? 1 : 0);
+    }
+
+    /**
+     * Gets the team whose turn it is.
+     *
+     * @return LIGHT or DARK
+     */
+    public Team getSideToMove() {
+        return sideToMove;
+    }
+
+    /**
+     * Sets the team whose turn it is.
+     *
+     * @param team LIGHT or DARK
+     */
+    public void setSideToMove(Team team) {
+        if (team != sideToMove) {
+            hash ^= Zobrist.SIDE_KEY;
+        }
+        sideToMove = team;
+    }
+
+    /**
+     * Gets the Zobrist hash of the position, which identifies it (chips and side to move)
+     * in the transposition table. It is kept up to date by every move and undo.
+     *
+     * @return the 64-bit hash
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Plays a move and hands the turn to the other team.
+     * Nothing is captured in Outwit, so the move is fully described by its two squares
+     * and can be taken back with {@link #unmakeMove(int)}.
+     *
+     * @param move the packed move, or {@link Moves#NONE} to pass
+     */
+    public void makeMove(int move) {
+        if (move != Moves.NONE) {
+            slide(Moves.from(move), Moves.to(move));
+        }
+        sideToMove = sideToMove.opponent();
+        hash ^= Zobrist.SIDE_KEY;
+    }
+
+    /**
+     * Takes back the last move played with {@link #makeMove(int)}.
+     *
+     * @param move the packed move that was played
+     */
+    public void unmakeMove(int move) {
+        sideToMove = sideToMove.opponent();
+        hash ^= Zobrist.SIDE_KEY;
+        if (move != Moves.NONE) {
+            slide(Moves.to(move), Moves.from(move));
+        }
+    }
+
+    /**
+     * Moves the chip on one square to another (empty) square.
+     *
+     * @param from the square holding the chip
+     * @param to   the empty destination square
+     */
+    private void slide(int from, int to) {
+        long fromLo = Bitboard.lo(from);
+        long fromHi = Bitboard.hi(from);
+        long flipLo = fromLo | Bitboard.lo(to);
+        long flipHi = fromHi | Bitboard.hi(to);
+        Team team;
+        if ((lightLo & fromLo) != 0 || (lightHi & fromHi) != 0) {
+            team = Team.LIGHT;
+            lightLo ^= flipLo;
+            lightHi ^= flipHi;
+        } else {
+            team = Team.DARK;
+            darkLo ^= flipLo;
+            darkHi ^= flipHi;
+        }
+        boolean power = (powerLo & fromLo) != 0 || (powerHi & fromHi) != 0;
+        if (power) {
+            powerLo ^= flipLo;
+            powerHi ^= flipHi;
+        }
+        int kind = Zobrist.kind(team, power);
+        hash ^= Zobrist.chip(kind, from) ^ Zobrist.chip(kind, to);
+        int homeDelta = (Board.zone(to) == team ? 1 : 0) - (Board.zone(from) == team ? 1 : 0);
+        updateTerms(team, power, Evaluator.distance(team, to) - Evaluator.distance(team, from), homeDelta);
+    }
+
+    /**
+     * Adjusts the evaluation terms of a team after one of its chips was placed or moved.
+     *
+     * @param team          the chip's team
+     * @param power         true if the chip is a power chip
+     * @param distanceDelta the change in the chip's distance to the home corner
+     * @param homeDelta     1 if the chip arrived home, 0 otherwise
+     */
+    private void updateTerms(Team team, boolean power, int distanceDelta, int homeDelta) {
+        int powerDelta = power ? distanceDelta : 0;
+        if (team == Team.LIGHT) {
+            lightDistance += distanceDelta;
+            lightPowerDistance += powerDelta;
+            lightHome += homeDelta;
+        } else {
+            darkDistance += distanceDelta;
+            darkPowerDistance += powerDelta;
+            darkHome += homeDelta;
+        }
+    }
+
+    /**
+     * Gets the sum of a team's chip distances to its home corner.
+     *
+     * @param team LIGHT or DARK
+     * @return the total number of steps
+     */
+    int totalDistance(Team team) {
+        return team == Team.LIGHT ? lightDistance : darkDistance;
+    }
+
+    /**
+     * Gets the sum of a team's power chip distances to its home corner.
+     *
+     * @param team LIGHT or DARK
+     * @return the total number of steps of the power chips alone
+     */
+    int powerDistance(Team team) {
+        return team == Team.LIGHT ? lightPowerDistance : darkPowerDistance;
+    }
+
+    /**
+     * Gets the low word of a team's chip set.
+     *
+     * @param team LIGHT or DARK
+     * @return the squares 0-63 holding that team's chips
+     */
+    long chipsLo(Team team) {
+        return team == Team.LIGHT ? lightLo : darkLo;
+    }
+
+    /**
+     * Gets the high word of a team's chip set.
+     *
+     * @param team LIGHT or DARK
+     * @return the squares 64-89 holding that team's chips
+     */
+    long chipsHi(Team team) {
+        return team == Team.LIGHT ? lightHi : darkHi;
+    }
+
+    /**
+     * Checks if a square holds a chip.
+     *
+     * @param square the square index
+     * @return true if the square is occupied
+     */
+    public boolean isOccupied(int square) {
+        return Bitboard.test(lightLo | darkLo, lightHi | darkHi, square);
+    }
+
+    /**
+     * Gets the team of the chip on a square.
+     *
+     * @param square the square index
+     * @return LIGHT or DARK, or NEUTRAL if the square is empty
+     */
+    public Team teamAt(int square) {
+        if (Bitboard.test(lightLo, lightHi, square)) {
+            return Team.LIGHT;
+        } else if (Bitboard.test(darkLo, darkHi, square)) {
+            return Team.DARK;
+        }
+        return Team.NEUTRAL;
+    }
+
+    /**
+     * Checks if the chip on a square is a power chip.
+     *
+     * @param square the square index
+     * @return true if a power chip sits on the square
+     */
+    public boolean isPowerAt(int square) {
+        return Bitboard.test(powerLo, powerHi, square);
+    }
+
+    /**
+     * Counts how many of a team's chips are inside its home corner.
+     *
+     * @param team LIGHT or DARK
+     * @return the number of chips at home
+     */
+    public int chipsInHome(Team team) {
+        return team == Team.LIGHT ? lightHome : darkHome;
+    }
+
+    /**
+     * Finds the winner: the first team to bring all its chips home. Only the team that
+     * moved last can have just won, since the game stops as soon as one team does.
+     *
+     * @return LIGHT or DARK, or NEUTRAL if the game is still going
+     */
+    public Team winner() {
+        if (lightHome == CHIPS_PER_TEAM) {
+            return Team.LIGHT;
+        } else if (darkHome == CHIPS_PER_TEAM) {
+            return Team.DARK;
+        }
+        return Team.NEUTRAL;
+    }
+
+    /**
+     * Checks whether the game is over, from the home counters alone.
+     *
+     * @return true if one of the teams has all its chips home
+     */
+    public boolean isTerminal() {
+        return lightHome == CHIPS_PER_TEAM || darkHome == CHIPS_PER_TEAM;
+    }
+
+    /**
+     * Generates every legal move for the side to move.
+     *
+     * @param moves buffer receiving the packed moves; must hold at least {@link #MAX_MOVES}
+     * @return the number of moves written
+     */
+    public int generateMoves(int[] moves) {
+        long lo = chipsLo(sideToMove);
+        long hi = chipsHi(sideToMove);
+        int count = 0;
+        while (lo != 0) {
+            count = generateMoves(Long.numberOfTrailingZeros(lo), moves, count);
+            lo &= lo - 1;
+        }
+        while (hi != 0) {
+            count = generateMoves(64 + Long.numberOfTrailingZeros(hi), moves, count);
+            hi &= hi - 1;
+        }
+        return count;
+    }
+
+    /**
+     * Generates the legal moves of the chip on one square.
+     * A chip may enter empty neutral squares and its own home, but once home it may
+     * not leave. A regular chip slides as far as it can; a power chip may stop on
+     * any square along the way and may also move diagonally.
+     *
+     * @param from  the square of the chip to move
+     * @param moves buffer receiving the packed moves
+     * @param count number of moves already in the buffer
+     * @return the new number of moves in the buffer
+     */
+    public int generateMoves(int from, int[] moves, int count) {
+        Team team = teamAt(from);
+        boolean power = isPowerAt(from);
+        long homeLo = Bitboard.homeLo(team);
+        long homeHi = Bitboard.homeHi(team);
+        // blockers: occupied squares, the opponent's corner, and neutral squares once home
+        long blockLo;
+        long blockHi;
+        boolean outside = Bitboard.test(Bitboard.NEUTRAL_LO, Bitboard.NEUTRAL_HI, from);
+        if (outside) {
+            blockLo = ~(Bitboard.NEUTRAL_LO | homeLo) | lightLo | darkLo;
+            blockHi = ~(Bitboard.NEUTRAL_HI | homeHi) | lightHi | darkHi;
+        } else {
+            blockLo = ~homeLo | lightLo | darkLo;
+            blockHi = ~homeHi | lightHi | darkHi;
+        }
+
+        int flags = power ? Moves.POWER : 0;
+        int directions = power ? Rays.DIRECTIONS : Rays.ORTHOGONAL_DIRECTIONS;
+        for (int d = 0; d < directions; d++) {
+            int reach = Rays.reach(from, d, blockLo, blockHi);
+            if (reach == 0) {
+                continue;
+            }
+            if (power) {
+                for (int step = 0; step < reach; step++) {
+                    int to = Rays.square(from, d, step);
+                    moves[count++] = Moves.encode(from, to, flags | homeFlag(outside, homeLo, homeHi, to));
+                }
+            } else {
+                int to = Rays.square(from, d, reach - 1);
+                moves[count++] = Moves.encode(from, to, flags | homeFlag(outside, homeLo, homeHi, to));
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Works out the {@link Moves#ENTERS_HOME} flag of a move.
+     *
+     * @param outside true if the chip starts on a neutral square
+     * @param homeLo  low word of the mover's home corner
+     * @param homeHi  high word of the mover's home corner
+     * @param to      the destination square
+     * @return the flag, or 0
+     */
+    private static int homeFlag(boolean outside, long homeLo, long homeHi, int to) {
+        return outside && Bitboard.test(homeLo, homeHi, to) ? Moves.ENTERS_HOME : 0;
+    }
+}
@@ -0,0 +1,124 @@
+package edu.byuh.cis.cs203.outwit.engine;
+
+/**
+ * Slide rays for every square in all eight directions, built once at class load.
+ * The first four directions are orthogonal (regular chips), the last four diagonal
+ * (power chips only).
+ */
+public final class Rays {
+    public static final int RIGHT = 0;
+    public static final int LEFT = 1;
+    public static final int UP = 2;
+    public static final int DOWN = 3;
+    public static final int UP_RIGHT = 4;
+    public static final int UP_LEFT = 5;
+    public static final int DOWN_RIGHT = 6;
+    public static final int DOWN_LEFT = 7;
+    public static final int DIRECTIONS = 8;
+    public static final int ORTHOGONAL_DIRECTIONS = 4;
+
+    /**
+     * Longest possible ray (a full column minus the starting square).
+     */
+    public static final int MAX_LENGTH = Board.HEIGHT - 1;
+
+    private static final int[] DX = {1, -1, 0, 0, 1, -1, 1, -1};
+    private static final int[] DY = {0, 0, -1, 1, -1, -1, 1, 1};
+
+    // All tables are indexed by square * DIRECTIONS + direction.
+    private static final int[] SQUARES = new int[Board.SQUARES * DIRECTIONS * MAX_LENGTH];
+    private static final int[] LENGTH = new int[Board.SQUARES * DIRECTIONS];
+    private static final long[] MASK_LO = new long[Board.SQUARES * DIRECTIONS];
+    private static final long[] MASK_HI = new long[Board.SQUARES * DIRECTIONS];
+
+    static {
+        for (int sq = 0; sq < Board.SQUARES; sq++) {
+            for (int d = 0; d < DIRECTIONS; d++) {
+                int index = sq * DIRECTIONS + d;
+                int x = Board.x(sq) + DX[d];
+                int y = Board.y(sq) + DY[d];
+                int length = 0;
+                while (Board.onBoard(x, y)) {
+                    int target = Board.square(x, y);
+                    SQUARES[index * MAX_LENGTH + length++] = target;
+                    MASK_LO[index] |= Bitboard.lo(target);
+                    MASK_HI[index] |= Bitboard.hi(target);
+                    x += DX[d];
+                    y += DY[d];
+                }
+                LENGTH[index] = length;
+            }
+        }
+    }
+
+    private Rays() {
+    }
+
+    /**
+     * Gets the number of squares between a square and the board edge.
+     *
+     * @param square    the starting square
+     * @param direction one of the direction constants
+     * @return the length of the ray
+     */
+    public static int length(int square, int direction) {
+        return LENGTH[square * DIRECTIONS + direction];
+    }
+
+    /**
+     * Gets one square of a ray, ordered outward from the starting square.
+     *
+     * @param square    the starting square
+     * @param direction one of the direction constants
+     * @param step      0 for the adjacent square, 1 for the next, and so on
+     * @return the square index
+     */
+    public static int square(int square, int direction, int step) {
+        return SQUARES[(square * DIRECTIONS + direction) * MAX_LENGTH + step];
+    }
+
+    /**
+     * Finds the nearest square along a ray that belongs to the given blocker set.
+     * Rays pointing right or down run toward higher square numbers, so the nearest
+     * blocker is the lowest set bit; the others take the highest set bit.
+     *
+     * @param square    the starting square
+     * @param direction one of the direction constants
+     * @param blockLo   low word of the blocker set
+     * @param blockHi   high word of the blocker set
+     * @return the blocking square, or -1 if the ray reaches the edge unobstructed
+     */
+    public static int firstBlocker(int square, int direction, long blockLo, long blockHi) {
+        int index = square * DIRECTIONS + direction;
+        long lo = MASK_LO[index] & blockLo;
+        long hi = MASK_HI[index] & blockHi;
+        if ((lo | hi) == 0) {
+            return -1;
+        }
+        if (direction == RIGHT || direction == DOWN || direction == DOWN_RIGHT || direction == DOWN_LEFT) {
+            return lo != 0 ? Long.numberOfTrailingZeros(lo) : 64 + Long.numberOfTrailingZeros(hi);
+        }
+        return hi != 0 ? 127 - Long.numberOfLeadingZeros(hi) : 63 - Long.numberOfLeadingZeros(lo);
+    }
+
+    /**
+     * Counts how many squares a chip can slide along a ray before it meets a blocker
+     * or the edge of the board.
+     *
+     * @param square    the starting square
+     * @param direction one of the direction constants
+     * @param blockLo   low word of the blocker set
+     * @param blockHi   high word of the blocker set
+     * @return the number of reachable squares (0 if the adjacent square is blocked)
+     */
+    public static int reach(int square, int direction, long blockLo, long blockHi) {
+        int blocker = firstBlocker(square, direction, blockLo, blockHi);
+        if (blocker < 0) {
+            return LENGTH[square * DIRECTIONS + direction];
+        }
+        // each step changes the row by one unless the ray is horizontal
+        int steps = DY[direction] != 0 ? Math.abs(Board.y(blocker) - Board.y(square))
+                : Math.abs(Board.x(blocker) - Board.x(square));
+        return steps - 1;
+    }
+}
@@ -0,0 +1,73 @@
+package edu.byuh.cis.cs203.outwit.engine;
+
+import edu.byuh.cis.cs203.outwit.Team;
+
+/**
+ * The rules of Outwit, independent of how the board is drawn: where a chip may go and
+ * when the game is over. The game view and the engine both ask these methods, so the
+ * two can never disagree.
+ */
+public final class Rules {
+    private Rules() {
+    }
+
+    /**
+     * Checks whether a chip may enter an empty square.
+     * A chip may always enter its own home. It may cross neutral squares only while it
+     * has not reached its home yet, and it may never enter the opponent's home.
+     *
+     * @param chip     the chip's team
+     * @param fromZone the zone the chip starts from (see {@link Board#zone(int)})
+     * @param toZone   the zone of the square it wants to enter
+     * @return true if the chip may enter the square
+     */
+    public static boolean mayEnter(Team chip, Team fromZone, Team toZone) {
+        if (toZone == chip) {
+            return true;
+        }
+        return toZone == Team.NEUTRAL && fromZone == Team.NEUTRAL;
+    }
+
+    /**
+     * Checks whether moving the chip on one square to another is a legal move for the
+     * side to move.
+     *
+     * @param position the position
+     * @param from     the square of the chip to move
+     * @param to       the destination square
+     * @return true if the move is legal
+     */
+    public static boolean isLegalMove(Position position, int from, int to) {
+        if (position.teamAt(from) != position.getSideToMove()) {
+            return false;
+        }
+        int[] moves = new int[Position.MAX_MOVES];
+        int count = position.generateMoves(from, moves, 0);
+        for (int i = 0; i < count; i++) {
+            if (Moves.to(moves[i]) == to) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the winner of a position: the first team to bring all its chips home.
+     *
+     * @param position the position
+     * @return LIGHT or DARK, or NEUTRAL if the game is still going
+     */
+    public static Team winner(Position position) {
+        return position.winner();
+    }
+
+    /**
+     * Checks whether the game is over.
+     *
+     * @param position the position
+     * @return true if one of the teams has won
+     */
+    public static boolean isGameOver(Position position) {
+        return position.isTerminal();
+    }
+}
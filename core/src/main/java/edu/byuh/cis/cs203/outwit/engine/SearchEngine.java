@@ -0,0 +1,31 @@
+package edu.byuh.cis.cs203.outwit.engine;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A way of choosing the bot's move. The bot can be backed by either the alpha-beta
+ * search ({@link ParallelSearch}) or Monte Carlo tree search ({@link MctsSearch}).
+ */
+public interface SearchEngine {
+    /**
+     * A time budget for searches bounded by depth or nodes instead: a day, far enough
+     * away that the clock never stops them.
+     */
+    long NO_TIME_LIMIT_MS = 24L * 60 * 60 * 1000;
+
+    /**
+     * Searches a position until the budget runs out or the given flag is raised.
+     *
+     * @param root       the position to search; it is not modified
+     * @param timeBudget maximum thinking time in milliseconds
+     * @param nodeBudget maximum amount of work: nodes for alpha-beta, playouts for MCTS
+     * @param cancel     set to true from any thread to stop the search
+     * @return the best move, or {@link Moves#NONE} if the side to move has no legal move
+     */
+    int findBestMove(Position root, long timeBudget, long nodeBudget, AtomicBoolean cancel);
+
+    /**
+     * Stops any threads the engine started, for good.
+     */
+    void shutdown();
+}
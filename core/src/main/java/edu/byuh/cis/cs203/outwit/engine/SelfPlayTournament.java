@@ -0,0 +1,329 @@
+package edu.byuh.cis.cs203.outwit.engine;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import edu.byuh.cis.cs203.outwit.Team;
+
+/**
+ * Plays engine-against-engine games without the game view, on every core at once, to
+ * measure whether a change makes the bot stronger.
+ * <p>
+ * Games are played in pairs from the same opening, each engine taking light once. The
+ * openings cycle through the chipsets, first with the standard layout and then with
+ * seeded random layouts. A game is drawn if both sides pass in a row or it runs past
+ * {@link #MAX_PLIES}. The result is reported from the first engine's point of view, with
+ * an Elo estimate. With an SPRT, the match stops as soon as the result is clear:
+ * H0 says the first engine is elo0 stronger, H1 that it is elo1 stronger.
+ * <p>
+ * Usage: {@code SelfPlayTournament engineA engineB [games] [limit] [threads] [sprt elo0 elo1]},
+ * where an engine is "alphabeta", "mcts" or "legacy" and the limit is a node count (for
+ * Monte Carlo, playouts) or a time such as "100ms" per move.
+ */
+public final class SelfPlayTournament {
+    /**
+     * Games longer than this are drawn.
+     */
+    public static final int MAX_PLIES = 400;
+
+    private static final String[] CHIPSETS = {"standard", "power", "normal"};
+    private static final int DEFAULT_GAMES = 200;
+    private static final String DEFAULT_LIMIT = "20000";
+    private static final double SPRT_ALPHA = 0.05;
+    private static final double SPRT_BETA = 0.05;
+
+    private final String engineA;
+    private final String engineB;
+    private final long timeBudget;
+    private final long nodeBudget;
+    private final AtomicBoolean stop = new AtomicBoolean();
+
+    /**
+     * Creates a match.
+     *
+     * @param engineA    the engine results are reported for
+     * @param engineB    its opponent
+     * @param timeBudget thinking time per move in milliseconds
+     * @param nodeBudget nodes (or playouts) per move
+     */
+    private SelfPlayTournament(String engineA, String engineB, long timeBudget, long nodeBudget) {
+        this.engineA = engineA;
+        this.engineB = engineB;
+        this.timeBudget = timeBudget;
+        this.nodeBudget = nodeBudget;
+    }
+
+    /**
+     * Runs a match and prints the running score and the final report.
+     *
+     * @param args the two engines, then optionally the number of games, the limit per move,
+     *             the thread count and an SPRT
+     * @throws InterruptedException if interrupted while waiting for the games
+     * @throws ExecutionException   if a game fails
+     */
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        if (args.length < 2) {
+            System.err.println("usage: SelfPlayTournament alphabeta|mcts|legacy alphabeta|mcts|legacy"
+                    + " [games] [nodes|<n>ms] [threads] [sprt elo0 elo1]");
+            System.exit(2);
+        }
+        int games = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_GAMES;
+        String limit = args.length > 3 ? args[3] : DEFAULT_LIMIT;
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        boolean sprt = args.length > 7 && args[5].equals("sprt");
+        double elo0 = sprt ? Double.parseDouble(args[6]) : 0;
+        double elo1 = sprt ? Double.parseDouble(args[7]) : 0;
+
+        long timeBudget = SearchEngine.NO_TIME_LIMIT_MS;
+        long nodeBudget = Long.MAX_VALUE;
+        if (limit.endsWith("ms")) {
+            timeBudget = Long.parseLong(limit.substring(0, limit.length() - 2));
+        } else {
+            nodeBudget = Long.parseLong(limit);
+        }
+        SelfPlayTournament match = new SelfPlayTournament(args[0], args[1], timeBudget, nodeBudget);
+
+        System.out.println(args[0] + " vs " + args[1] + ", " + games + " games, " + limit
+                + " per move, " + threads + " threads");
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CompletionService<Integer> results = new ExecutorCompletionService<>(pool);
+        for (int game = 0; game < games; game++) {
+            final int index = game;
+            results.submit(() -> match.play(index));
+        }
+
+        Score score = new Score();
+        long start = System.nanoTime();
+        String verdict = null;
+        for (int game = 0; game < games && verdict == null; game++) {
+            score.add(results.take().get());
+            if (sprt) {
+                double llr = score.llr(elo0, elo1);
+                if (llr >= Math.log((1 - SPRT_BETA) / SPRT_ALPHA)) {
+                    verdict = "H1 accepted (" + args[0] + " is at least " + elo1 + " Elo stronger)";
+                } else if (llr <= Math.log(SPRT_BETA / (1 - SPRT_ALPHA))) {
+                    verdict = "H0 accepted (" + args[0] + " is not " + elo1 + " Elo stronger)";
+                }
+            }
+            if (score.games() % 10 == 0 || verdict != null) {
+                System.out.println(score.summary());
+            }
+        }
+        // an SPRT decision abandons the games still running
+        match.stop.set(true);
+        pool.shutdownNow();
+        double minutes = (System.nanoTime() - start) / 6e10;
+
+        System.out.println();
+        System.out.println(score.summary());
+        System.out.println(String.format(Locale.US, "Elo %s, %.1f games/minute", score.eloRange(),
+                score.games() / minutes));
+        if (sprt) {
+            System.out.println(String.format(Locale.US, "SPRT [%.1f, %.1f]: LLR %.2f, %s", elo0, elo1,
+                    score.llr(elo0, elo1), verdict != null ? verdict : "no decision yet"));
+        }
+    }
+
+    /**
+     * Plays one game of the match.
+     *
+     * @param index the game's number; games 2k and 2k + 1 share an opening
+     * @return 2 if the first engine won, 1 for a draw, 0 if it lost
+     */
+    private int play(int index) {
+        int pair = index / 2;
+        boolean aIsLight = index % 2 == 0;
+        Position position = opening(pair);
+        Random random = new Random(index);
+        SearchEngine a = createEngine(engineA, random);
+        SearchEngine b = createEngine(engineB, random);
+        try {
+            int passes = 0;
+            for (int ply = 0; ply < MAX_PLIES && passes < 2 && !stop.get(); ply++) {
+                boolean aToMove = (position.getSideToMove() == Team.LIGHT) == aIsLight;
+                SearchEngine engine = aToMove ? a : b;
+                int move = engine.findBestMove(position, timeBudget, nodeBudget, stop);
+                passes = move == Moves.NONE ? passes + 1 : 0;
+                position.makeMove(move);
+                Team winner = position.winner();
+                if (winner != Team.NEUTRAL) {
+                    return (winner == Team.LIGHT) == aIsLight ? 2 : 0;
+                }
+            }
+            return 1;
+        } finally {
+            a.shutdown();
+            b.shutdown();
+        }
+    }
+
+    /**
+     * Builds the opening of a game pair.
+     *
+     * @param pair the pair's number
+     * @return the start position, light to move
+     */
+    private static Position opening(int pair) {
+        String chipset = CHIPSETS[pair % CHIPSETS.length];
+        if (pair < CHIPSETS.length) {
+            return Position.standardLayout(chipset, Team.LIGHT);
+        }
+        return Position.randomLayout(chipset, Team.LIGHT, new Random(pair));
+    }
+
+    /**
+     * Creates a single-threaded engine for one game.
+     *
+     * @param name   "alphabeta", "mcts" or "legacy"
+     * @param random where the legacy heuristic's random moves come from
+     * @return the engine
+     */
+    private static SearchEngine createEngine(String name, Random random) {
+        switch (name) {
+            case "alphabeta":
+                return new ParallelSearch(1);
+            case "mcts":
+                return new MctsSearch(1);
+            case "legacy":
+                return new LegacyHeuristic(random);
+            default:
+                throw new IllegalArgumentException("unknown engine: " + name);
+        }
+    }
+
+    /**
+     * The running result of a match, from the first engine's point of view.
+     */
+    static final class Score {
+        private int wins;
+        private int draws;
+        private int losses;
+
+        /**
+         * Counts one game.
+         *
+         * @param result 2 for a win, 1 for a draw, 0 for a loss
+         */
+        void add(int result) {
+            if (result == 2) {
+                wins++;
+            } else if (result == 1) {
+                draws++;
+            } else {
+                losses++;
+            }
+        }
+
+        /**
+         * Gets the number of games counted.
+         *
+         * @return the game count
+         */
+        int games() {
+            return wins + draws + losses;
+        }
+
+        /**
+         * Gets the average score per game.
+         *
+         * @return 1 for a win, 0.5 for a draw and 0 for a loss, averaged
+         */
+        double mean() {
+            return (wins + 0.5 * draws) / games();
+        }
+
+        /**
+         * Gets the variance of the score of one game.
+         *
+         * @return the variance
+         */
+        double variance() {
+            double mean = mean();
+            return (wins * (1 - mean) * (1 - mean) + draws * (0.5 - mean) * (0.5 - mean)
+                    + losses * mean * mean) / games();
+        }
+
+        /**
+         * Computes the log-likelihood ratio of H1 (elo1) against H0 (elo0), using the
+         * normal approximation of the mean score.
+         *
+         * @param elo0 the Elo difference under H0
+         * @param elo1 the Elo difference under H1
+         * @return the ratio; 0 until both wins and losses or draws have been seen
+         */
+        double llr(double elo0, double elo1) {
+            double variance = variance();
+            if (variance == 0) {
+                return 0;
+            }
+            double s0 = expectedScore(elo0);
+            double s1 = expectedScore(elo1);
+            return games() * (s1 - s0) * (2 * mean() - s0 - s1) / (2 * variance);
+        }
+
+        /**
+         * Formats the Elo difference with a 95% confidence interval.
+         *
+         * @return e.g. "+35.2 [+12.0, +58.9]"
+         */
+        String eloRange() {
+            double margin = 1.96 * Math.sqrt(variance() / games());
+            return String.format(Locale.US, "%s [%s, %s]", formatElo(elo(mean())),
+                    formatElo(elo(mean() - margin)), formatElo(elo(mean() + margin)));
+        }
+
+        /**
+         * Summarizes the result.
+         *
+         * @return e.g. "100 games: +40 =20 -40 (50.0%)"
+         */
+        String summary() {
+            return String.format(Locale.US, "%d games: +%d =%d -%d (%.1f%%)",
+                    games(), wins, draws, losses, 100 * mean());
+        }
+
+        /**
+         * Converts an Elo difference to the expected score.
+         *
+         * @param elo the Elo difference
+         * @return the expected score per game
+         */
+        static double expectedScore(double elo) {
+            return 1 / (1 + Math.pow(10, -elo / 400));
+        }
+
+        /**
+         * Converts an average score to an Elo difference.
+         *
+         * @param score the average score per game
+         * @return the Elo difference; infinite for a score of 0 or 1
+         */
+        static double elo(double score) {
+            if (score <= 0) {
+                return Double.NEGATIVE_INFINITY;
+            } else if (score >= 1) {
+                return Double.POSITIVE_INFINITY;
+            }
+            return -400 * Math.log10(1 / score - 1);
+        }
+
+        /**
+         * Formats an Elo difference with its sign.
+         *
+         * @param elo the difference
+         * @return e.g. "+35.2" or "-inf"
+         */
+        private static String formatElo(double elo) {
+            if (Double.isInfinite(elo)) {
+                return elo > 0 ? "+inf" : "-inf";
+            }
+            return String.format(Locale.US, "%+.1f", elo);
+        }
+    }
+}
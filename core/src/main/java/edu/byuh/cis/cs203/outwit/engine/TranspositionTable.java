@@ -0,0 +1,150 @@
+package edu.byuh.cis.cs203.outwit.engine;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size hash table of search results keyed by Zobrist hash.
+ * Each entry packs depth, bound type, score and best move into one long. The slot stores
+ * that long next to (hash XOR data), so a torn write from another thread simply fails the
+ * key check instead of returning a corrupt entry.
+ */
+public final class TranspositionTable {
+    public static final int DEFAULT_SIZE_MB = 8;
+
+    /**
+     * The score is exact.
+     */
+    public static final int EXACT = 1;
+
+    /**
+     * The search failed high: the real score is at least the stored one.
+     */
+    public static final int LOWER = 2;
+
+    /**
+     * The search failed low: the real score is at most the stored one.
+     */
+    public static final int UPPER = 3;
+
+    // Layout of the data word: move (16 bits) | score + offset (18 bits) | depth (8 bits) | bound (2 bits)
+    private static final int MOVE_BITS = Moves.BITS;
+    private static final int SCORE_BITS = 18;
+    private static final int DEPTH_BITS = 8;
+    private static final int SCORE_SHIFT = MOVE_BITS;
+    private static final int DEPTH_SHIFT = SCORE_SHIFT + SCORE_BITS;
+    private static final int BOUND_SHIFT = DEPTH_SHIFT + DEPTH_BITS;
+    private static final int SCORE_OFFSET = 1 << (SCORE_BITS - 1);
+
+    private final long[] checks;
+    private final long[] data;
+    private final int mask;
+
+    /**
+     * Creates a table using roughly the given amount of memory.
+     *
+     * @param sizeMb table size in megabytes; rounded down to a power-of-two entry count
+     */
+    public TranspositionTable(int sizeMb) {
+        long entries = Math.max(1, (long) sizeMb * 1024 * 1024 / 16);
+        int size = Integer.highestOneBit((int) Math.min(entries, 1 << 30));
+        checks = new long[size];
+        data = new long[size];
+        mask = size - 1;
+    }
+
+    /**
+     * Looks up a position.
+     *
+     * @param hash the position's Zobrist hash
+     * @return the packed entry, or 0 if the position is not in the table
+     */
+    public long probe(long hash) {
+        int index = (int) hash & mask;
+        long entry = data[index];
+        if (entry != 0 && (checks[index] ^ entry) == hash) {
+            return entry;
+        }
+        return 0;
+    }
+
+    /**
+     * Records a search result. An existing entry for the same position is kept if it
+     * was searched deeper; entries for other positions are always replaced.
+     *
+     * @param hash  the position's Zobrist hash
+     * @param depth the remaining depth the position was searched to
+     * @param bound EXACT, LOWER or UPPER
+     * @param score the score from the side to move's point of view
+     * @param move  the best move found, or {@link Moves#NONE}
+     */
+    public void store(long hash, int depth, int bound, int score, int move) {
+        int index = (int) hash & mask;
+        long old = data[index];
+        if (old != 0 && (checks[index] ^ old) == hash && depth(old) > depth) {
+            return;
+        }
+        long entry = ((long) bound << BOUND_SHIFT)
+                | ((long) depth << DEPTH_SHIFT)
+                | ((long) (score + SCORE_OFFSET) << SCORE_SHIFT)
+                | move;
+        data[index] = entry;
+        checks[index] = hash ^ entry;
+    }
+
+    /**
+     * Empties the table.
+     */
+    public void clear() {
+        Arrays.fill(checks, 0);
+        Arrays.fill(data, 0);
+    }
+
+    /**
+     * Gets the number of slots in the table.
+     *
+     * @return the capacity in entries
+     */
+    public int capacity() {
+        return data.length;
+    }
+
+    /**
+     * Extracts the best move of a probed entry.
+     *
+     * @param entry a value returned by {@link #probe(long)}
+     * @return the packed move, or {@link Moves#NONE}
+     */
+    public static int move(long entry) {
+        return (int) (entry & ((1 << MOVE_BITS) - 1));
+    }
+
+    /**
+     * Extracts the score of a probed entry.
+     *
+     * @param entry a value returned by {@link #probe(long)}
+     * @return the stored score
+     */
+    public static int score(long entry) {
+        return (int) ((entry >>> SCORE_SHIFT) & ((1 << SCORE_BITS) - 1)) - SCORE_OFFSET;
+    }
+
+    /**
+     * Extracts the search depth of a probed entry.
+     *
+     * @param entry a value returned by {@link #probe(long)}
+     * @return the stored depth
+     */
+    public static int depth(long entry) {
+        return (int) ((entry >>> DEPTH_SHIFT) & ((1 << DEPTH_BITS) - 1));
+    }
+
+    /**
+     * Extracts the bound type of a probed entry.
+     *
+     * @param entry a value returned by {@link #probe(long)}
+     * @return EXACT, LOWER or UPPER
+     */
+    public static int bound(long entry) {
+        return (int) (entry >>> BOUND_SHIFT) & 3;
+    }
+}
@@ -0,0 +1,56 @@
+package edu.byuh.cis.cs203.outwit.engine;
+
+import java.util.Random;
+
+import edu.byuh.cis.cs203.outwit.Team;
+
+/**
+ * Random keys for Zobrist hashing of positions.
+ * A position's hash is the XOR of one key per chip (chip kind x square) and, when dark
+ * is to move, the side key. The seed is fixed so hashes are stable between runs, which
+ * lets them be stored in files.
+ */
+public final class Zobrist {
+    public static final int KINDS = 4;
+
+    private static final long SEED = 0x4F7574776974L; // "Outwit" in ASCII
+    private static final long[] CHIP_KEYS = new long[KINDS * Board.SQUARES];
+
+    /**
+     * XOR-ed into the hash whenever dark is to move.
+     */
+    public static final long SIDE_KEY;
+
+    static {
+        Random random = new Random(SEED);
+        for (int i = 0; i < CHIP_KEYS.length; i++) {
+            CHIP_KEYS[i] = random.nextLong();
+        }
+        SIDE_KEY = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * Gets the kind index of a chip: light regular, light power, dark regular or dark power.
+     *
+     * @param team  LIGHT or DARK
+     * @param power true for a power chip
+     * @return a number from 0 to 3
+     */
+    public static int kind(Team team, boolean power) {
+        return (team == Team.DARK ? 2 : 0) + (power ? 1 : 0);
+    }
+
+    /**
+     * Gets the key of a chip kind standing on a square.
+     *
+     * @param kind   the chip kind (see {@link #kind(Team, boolean)})
+     * @param square the square index
+     * @return the random key
+     */
+    public static long chip(int kind, int square) {
+        return CHIP_KEYS[kind * Board.SQUARES + square];
+    }
+}
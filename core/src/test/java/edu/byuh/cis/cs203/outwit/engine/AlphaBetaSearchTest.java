@@ -0,0 +1,43 @@
+package edu.byuh.cis.cs203.outwit.engine;
+
+import org.junit.Test;
+
+import edu.byuh.cis.cs203.outwit.Team;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks {@link AlphaBetaSearch#score}, which also searches the positions that
+ * {@link AlphaBetaSearch#findBestMove} returns from at once.
+ */
+public class AlphaBetaSearchTest {
+    @Test
+    public void aFinishedGameScoresAsALoss() {
+        Position won = new Position();
+        for (int square = 0; square < Board.SQUARES; square++) {
+            if (Board.zone(square) == Team.DARK) {
+                won.put(square, Team.DARK, false);
+            }
+        }
+        won.put(Board.square(4, 4), Team.LIGHT, false);
+        assertTrue(won.isTerminal());
+
+        assertEquals(-Evaluator.WIN, new AlphaBetaSearch().score(won, 4));
+    }
+
+    @Test
+    public void aWinInOneScoresAsAWin() {
+        // light's only chip outside home is one slide away from finishing the game
+        Position position = new Position();
+        for (int square = 0; square < Board.SQUARES; square++) {
+            if (Board.zone(square) == Team.LIGHT && square != Board.square(6, 0)) {
+                position.put(square, Team.LIGHT, false);
+            }
+        }
+        position.put(Board.square(5, 0), Team.LIGHT, false);
+        position.put(Board.square(4, 4), Team.DARK, false);
+
+        assertTrue(new AlphaBetaSearch().score(position, 3) > Evaluator.WIN - AlphaBetaSearch.MAX_PLY);
+    }
+}
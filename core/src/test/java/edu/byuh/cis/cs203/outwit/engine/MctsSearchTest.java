@@ -0,0 +1,45 @@
+package edu.byuh.cis.cs203.outwit.engine;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import edu.byuh.cis.cs203.outwit.Team;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the tree search well past the point where its tree is full.
+ */
+public class MctsSearchTest {
+    private static final int CAPACITY = 100;
+    private static final int PLAYOUTS = 20000;
+
+    @Test
+    public void aFullTreeKeepsSearching() {
+        MctsSearch search = new MctsSearch(2, CAPACITY, runnable -> {
+            Thread thread = new Thread(runnable, "mcts-test-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Position position = Position.standardLayout("standard", Team.LIGHT);
+            int move = search.findBestMove(position, SearchEngine.NO_TIME_LIMIT_MS, PLAYOUTS, new AtomicBoolean());
+
+            assertTrue(search.getPlayouts() >= PLAYOUTS);
+            assertTrue(search.getTreeSize() <= CAPACITY);
+            int[] moves = new int[Position.MAX_MOVES];
+            int count = position.generateMoves(moves);
+            boolean legal = false;
+            for (int i = 0; i < count; i++) {
+                legal |= moves[i] == move;
+            }
+            assertTrue(legal);
+            // the full tree is thrown away and the next search starts afresh
+            search.findBestMove(position, SearchEngine.NO_TIME_LIMIT_MS, PLAYOUTS, new AtomicBoolean());
+            assertTrue(search.getPlayouts() >= PLAYOUTS);
+        } finally {
+            search.shutdown();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package edu.byuh.cis.cs203.outwit.engine;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import edu.byuh.cis.cs203.outwit.Team;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that move generation and make/unmake never allocate, so the search does not
+ * keep the garbage collector busy (or, on Android, cause GC pauses while the board animates).
+ */
+public class MoveGenerationAllocationTest {
+    private static final int POSITIONS = 200;
+    private static final int ROUNDS = 50;
+    private static final int WARMUP_WALKS = 5;
+    // looked up once: the lookup itself allocates
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    public void generateAndMakeDoNotAllocate() {
+        List<Position> positions = randomPositions();
+        int[] moves = new int[Position.MAX_MOVES];
+        // let the JIT compile everything before measuring
+        long checksum = 0;
+        for (int i = 0; i < WARMUP_WALKS; i++) {
+            checksum += walk(positions, moves);
+        }
+
+        long before = allocatedBytes();
+        checksum += walk(positions, moves);
+        long allocated = allocatedBytes() - before;
+
+        assertTrue(checksum != 0);
+        assertEquals("bytes allocated by move generation", 0, allocated);
+    }
+
+    @Test
+    public void searchAllocatesOnlyPerCall() {
+        AlphaBetaSearch search = new AlphaBetaSearch(new TranspositionTable(1));
+        Position start = Position.standardLayout("standard", Team.LIGHT);
+        search.findBestMove(start, 60_000, 100_000);
+
+        long before = allocatedBytes();
+        search.findBestMove(start, 60_000, 200_000);
+        long allocated = allocatedBytes() - before;
+
+        assertTrue(search.getNodes() >= 100_000);
+        assertTrue("search allocated " + allocated + " bytes", allocated < 1024);
+    }
+
+    /**
+     * Generates every move of every position and plays each one forward and back.
+     *
+     * @param positions the positions to walk
+     * @param moves     the move buffer
+     * @return a sum of the hashes seen, so the work cannot be optimized away
+     */
+    private static long walk(List<Position> positions, int[] moves) {
+        long checksum = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int p = 0; p < positions.size(); p++) {
+                Position position = positions.get(p);
+                int count = position.generateMoves(moves);
+                for (int i = 0; i < count; i++) {
+                    position.makeMove(moves[i]);
+                    checksum += position.getHash();
+                    position.unmakeMove(moves[i]);
+                }
+            }
+        }
+        return checksum;
+    }
+
+    /**
+     * Plays random games from the standard layout and collects positions along the way.
+     *
+     * @return the positions
+     */
+    private static List<Position> randomPositions() {
+        Random random = new Random(1);
+        List<Position> positions = new ArrayList<>();
+        int[] moves = new int[Position.MAX_MOVES];
+        Position position = Position.standardLayout("standard", Team.LIGHT);
+        while (positions.size() < POSITIONS) {
+            int count = position.generateMoves(moves);
+            if (count == 0 || position.chipsInHome(Team.LIGHT) == Position.CHIPS_PER_TEAM
+                    || position.chipsInHome(Team.DARK) == Position.CHIPS_PER_TEAM) {
+                position = Position.standardLayout("standard", Team.LIGHT);
+                continue;
+            }
+            position.makeMove(moves[random.nextInt(count)]);
+            positions.add(new Position(position));
+        }
+        return positions;
+    }
+
+    /**
+     * Gets the number of bytes this thread has allocated so far.
+     *
+     * @return the byte count
+     */
+    private static long allocatedBytes() {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,168 @@
+package edu.byuh.cis.cs203.outwit.engine;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import edu.byuh.cis.cs203.outwit.Team;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the move generator with perft counts: against a table of known-good counts, and
+ * against a plain reference generator that walks the board square by square.
+ */
+public class PerftTest {
+    // chipset, random seed (-1 for the standard layout), depth, leaf count
+    private static final Object[][] KNOWN_COUNTS = {
+            {"standard", -1L, 1, 27L},
+            {"standard", -1L, 2, 817L},
+            {"standard", -1L, 3, 24428L},
+            {"standard", -1L, 4, 783665L},
+            {"power", -1L, 3, 711248L},
+            {"normal", -1L, 3, 5220L},
+            {"normal", -1L, 5, 1957449L},
+            {"standard", 1L, 3, 56770L},
+            {"standard", 1L, 4, 2238141L},
+            {"power", 7L, 3, 1128209L},
+            {"normal", 3L, 4, 229516L},
+    };
+
+    private static final int[][] DIRECTIONS = {
+            {1, 0}, {-1, 0}, {0, -1}, {0, 1}, {1, -1}, {-1, -1}, {1, 1}, {-1, 1}
+    };
+
+    @Test
+    public void countsMatchTheKnownValues() {
+        for (Object[] known : KNOWN_COUNTS) {
+            Position root = layout((String) known[0], (Long) known[1]);
+            int depth = (Integer) known[2];
+            assertEquals(describe(known), (long) (Long) known[3], Perft.count(root, depth));
+        }
+    }
+
+    @Test
+    public void divideAddsUpToTheCount() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        Position root = layout("standard", -1L);
+        Perft.Divide divide = Perft.divide(root, 4, pool);
+        pool.shutdown();
+
+        assertEquals(27, divide.size());
+        assertEquals(783665L, divide.total());
+        Position child = new Position(root);
+        child.makeMove(divide.move(0));
+        assertEquals(Perft.count(child, 3), divide.count(0));
+    }
+
+    @Test
+    public void generatorMatchesTheReferenceRules() {
+        String[] chipsets = {"standard", "power", "normal"};
+        for (String chipset : chipsets) {
+            for (long seed = -1; seed < 4; seed++) {
+                Position root = layout(chipset, seed);
+                int depth = chipset.equals("power") ? 2 : 3;
+                assertEquals(chipset + " seed " + seed, referenceCount(root, depth), Perft.count(root, depth));
+            }
+        }
+    }
+
+    /**
+     * Counts leaf nodes with the reference generator.
+     *
+     * @param position the position; restored before returning
+     * @param depth    the number of plies left
+     * @return the number of leaf nodes
+     */
+    private static long referenceCount(Position position, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        if (Rules.isGameOver(position)) {
+            return 0;
+        }
+        int[] moves = new int[Position.MAX_MOVES];
+        int count = 0;
+        for (int square = 0; square < Board.SQUARES; square++) {
+            if (position.teamAt(square) == position.getSideToMove()) {
+                count = referenceMoves(position, square, moves, count);
+            }
+        }
+        if (count == 0) {
+            moves[count++] = Moves.NONE;
+        }
+        long leaves = 0;
+        for (int i = 0; i < count; i++) {
+            position.makeMove(moves[i]);
+            leaves += referenceCount(position, depth - 1);
+            position.unmakeMove(moves[i]);
+        }
+        return leaves;
+    }
+
+    /**
+     * Generates one chip's moves by stepping along each direction until a square may not
+     * be entered. A power chip may stop anywhere along the way; a regular chip only at the
+     * end.
+     *
+     * @param position the position
+     * @param from     the chip's square
+     * @param moves    receives the moves
+     * @param count    the number of moves already in the buffer
+     * @return the new number of moves
+     */
+    private static int referenceMoves(Position position, int from, int[] moves, int count) {
+        Team team = position.teamAt(from);
+        Team fromZone = Board.zone(from);
+        boolean power = position.isPowerAt(from);
+        int directions = power ? DIRECTIONS.length : 4;
+        for (int d = 0; d < directions; d++) {
+            int x = Board.x(from) + DIRECTIONS[d][0];
+            int y = Board.y(from) + DIRECTIONS[d][1];
+            int last = -1;
+            while (Board.onBoard(x, y)) {
+                int to = Board.square(x, y);
+                if (position.isOccupied(to) || !Rules.mayEnter(team, fromZone, Board.zone(to))) {
+                    break;
+                }
+                if (power) {
+                    moves[count++] = Moves.encode(from, to);
+                }
+                last = to;
+                x += DIRECTIONS[d][0];
+                y += DIRECTIONS[d][1];
+            }
+            if (!power && last >= 0) {
+                moves[count++] = Moves.encode(from, last);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Builds a start position, light to move.
+     *
+     * @param chipset "standard", "power" or "normal"
+     * @param seed    the seed of a random layout, or -1 for the standard layout
+     * @return the position
+     */
+    private static Position layout(String chipset, long seed) {
+        if (seed < 0) {
+            return Position.standardLayout(chipset, Team.LIGHT);
+        }
+        return Position.randomLayout(chipset, Team.LIGHT, new Random(seed));
+    }
+
+    /**
+     * Describes a row of {@link #KNOWN_COUNTS} for failure messages.
+     *
+     * @param known the row
+     * @return e.g. "standard layout, power chipset, depth 3"
+     */
+    private static String describe(Object[] known) {
+        long seed = (Long) known[1];
+        String layout = seed < 0 ? "standard layout" : "random layout " + seed;
+        return layout + ", " + known[0] + " chipset, depth " + known[2];
+    }
+}
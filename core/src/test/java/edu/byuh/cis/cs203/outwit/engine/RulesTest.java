@@ -0,0 +1,109 @@
+package edu.byuh.cis.cs203.outwit.engine;
+
+import org.junit.Test;
+
+import edu.byuh.cis.cs203.outwit.Team;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the rules on plain JVM positions, without any Android classes.
+ */
+public class RulesTest {
+    @Test
+    public void chipsEnterOnlyNeutralSquaresAndTheirOwnHome() {
+        assertTrue(Rules.mayEnter(Team.LIGHT, Team.NEUTRAL, Team.NEUTRAL));
+        assertTrue(Rules.mayEnter(Team.LIGHT, Team.NEUTRAL, Team.LIGHT));
+        assertTrue(Rules.mayEnter(Team.LIGHT, Team.LIGHT, Team.LIGHT));
+        assertFalse(Rules.mayEnter(Team.LIGHT, Team.NEUTRAL, Team.DARK));
+        assertFalse(Rules.mayEnter(Team.LIGHT, Team.LIGHT, Team.NEUTRAL));
+        assertFalse(Rules.mayEnter(Team.DARK, Team.DARK, Team.NEUTRAL));
+    }
+
+    @Test
+    public void regularChipsSlideAsFarAsTheyCan() {
+        Position position = new Position();
+        position.put(Board.square(4, 4), Team.LIGHT, false);
+        position.put(Board.square(4, 7), Team.DARK, false);
+
+        assertTrue(Rules.isLegalMove(position, Board.square(4, 4), Board.square(4, 6)));
+        assertFalse(Rules.isLegalMove(position, Board.square(4, 4), Board.square(4, 5)));
+        assertTrue(Rules.isLegalMove(position, Board.square(4, 4), Board.square(4, 0)));
+        assertFalse(Rules.isLegalMove(position, Board.square(4, 4), Board.square(5, 5)));
+        // not light's chip, or not light's turn
+        assertFalse(Rules.isLegalMove(position, Board.square(4, 7), Board.square(4, 9)));
+        position.setSideToMove(Team.DARK);
+        assertFalse(Rules.isLegalMove(position, Board.square(4, 4), Board.square(4, 6)));
+    }
+
+    @Test
+    public void powerChipsStopAnywhereAndMoveDiagonally() {
+        Position position = new Position();
+        position.put(Board.square(4, 4), Team.LIGHT, true);
+
+        assertTrue(Rules.isLegalMove(position, Board.square(4, 4), Board.square(4, 5)));
+        assertTrue(Rules.isLegalMove(position, Board.square(4, 4), Board.square(5, 3)));
+        // the dark home is out of bounds for a light chip
+        assertFalse(Rules.isLegalMove(position, Board.square(4, 4), Board.square(1, 7)));
+    }
+
+    @Test
+    public void chipsAtHomeStayHome() {
+        Position position = new Position();
+        position.put(Board.square(7, 1), Team.LIGHT, true);
+
+        assertTrue(Rules.isLegalMove(position, Board.square(7, 1), Board.square(8, 0)));
+        assertFalse(Rules.isLegalMove(position, Board.square(7, 1), Board.square(5, 1)));
+    }
+
+    @Test
+    public void theFirstTeamWithAllChipsHomeWins() {
+        Position position = Position.standardLayout("standard", Team.LIGHT);
+        assertEquals(Team.NEUTRAL, Rules.winner(position));
+        assertFalse(Rules.isGameOver(position));
+
+        Position won = new Position();
+        int placed = 0;
+        for (int square = 0; square < Board.SQUARES; square++) {
+            if (Board.zone(square) == Team.DARK) {
+                won.put(square, Team.DARK, false);
+                placed++;
+            }
+        }
+        won.put(Board.square(4, 4), Team.LIGHT, false);
+        assertEquals(Position.CHIPS_PER_TEAM, placed);
+        assertEquals(Team.DARK, Rules.winner(won));
+        assertTrue(Rules.isGameOver(won));
+    }
+
+    @Test
+    public void theWinnerFollowsMovesAndTakebacks() {
+        Position position = new Position();
+        for (int square = 0; square < Board.SQUARES; square++) {
+            if (Board.zone(square) == Team.LIGHT && square != Board.square(6, 0)) {
+                position.put(square, Team.LIGHT, false);
+            }
+        }
+        position.put(Board.square(5, 0), Team.LIGHT, false);
+        position.put(Board.square(4, 4), Team.DARK, false);
+        assertFalse(position.isTerminal());
+
+        int[] moves = new int[Position.MAX_MOVES];
+        int count = position.generateMoves(Board.square(5, 0), moves, 0);
+        int home = Moves.NONE;
+        for (int i = 0; i < count; i++) {
+            if (Moves.to(moves[i]) == Board.square(6, 0)) {
+                home = moves[i];
+            }
+        }
+        position.makeMove(home);
+        assertTrue(position.isTerminal());
+        assertEquals(Team.LIGHT, position.winner());
+
+        position.unmakeMove(home);
+        assertFalse(position.isTerminal());
+        assertEquals(Team.NEUTRAL, position.winner());
+    }
+}